@@ -3,11 +3,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class Appointment {
+    private int id;
     private Patient patient;
     private Doctor doctor;
     private Clinic clinic;
     private Service service;
     private LocalDateTime dateTime;
+    private List<Resource> resources = List.of();
 
     public Appointment(Patient patient, Doctor doctor, Clinic clinic, Service service, LocalDateTime dateTime) {
         this.patient = patient;
@@ -17,6 +19,15 @@ public class Appointment {
         this.dateTime = dateTime;
     }
 
+    // Database id; 0 until the row has been saved
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
 
     public Patient getPatient() {
         return patient;
@@ -39,6 +50,28 @@ public class Appointment {
         return dateTime;
     }
 
+    // Units (chairs, X-ray) occupied alongside the doctor
+    public List<Resource> getResources() {
+        return resources;
+    }
+
+    public void setResources(List<Resource> resources) {
+        this.resources = resources == null ? List.of() : List.copyOf(resources);
+    }
+
+    // Saved appointments match by id; an unsaved one (id 0) only matches itself
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Appointment) || id == 0) return false;
+        return id == ((Appointment) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return id == 0 ? System.identityHashCode(this) : Integer.hashCode(id);
+    }
+
     @Override
     public String toString() {
         return "Appointment at " + clinic.getName() +
@@ -0,0 +1,351 @@
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-doctor and per-resource, per-day index of booked appointments ordered by start time.
+// Each day also keeps a slot bitmap, so free-slot searches are word scans over three longs.
+// Free intervals are materialized per doctor-day and rebuilt only when that day changes.
+// Safe for concurrent use; each day is guarded by its own monitor.
+public class AppointmentCalendar {
+    // Doctors are keyed by doctorKey, resources by instance
+    private final Map<Object, Map<LocalDate, DaySchedule>> schedules = new ConcurrentHashMap<>();
+
+    public void add(Appointment appointment) {
+        LocalDate date = appointment.getDateTime().toLocalDate();
+        dayFor(doctorKey(appointment.getDoctor()), date).add(appointment);
+        for (Resource resource : appointment.getResources()) {
+            dayFor(resource, date).add(appointment);
+        }
+    }
+
+    public boolean remove(Appointment appointment) {
+        LocalDate date = appointment.getDateTime().toLocalDate();
+        for (Resource resource : appointment.getResources()) {
+            DaySchedule day = getDay(resource, date);
+            if (day != null) {
+                day.remove(appointment);
+            }
+        }
+        DaySchedule day = getDay(doctorKey(appointment.getDoctor()), date);
+        return day != null && day.remove(appointment);
+    }
+
+    // Held ranges count as busy in every search and free list until removed
+    public void addHold(Doctor doctor, TimeRange range) {
+        dayFor(doctorKey(doctor), range.getStart().toLocalDate()).addHold(range);
+    }
+
+    public boolean removeHold(Doctor doctor, TimeRange range) {
+        DaySchedule day = getDay(doctorKey(doctor), range.getStart().toLocalDate());
+        return day != null && day.removeHold(range);
+    }
+
+    public void addHold(Resource resource, TimeRange range) {
+        dayFor(resource, range.getStart().toLocalDate()).addHold(range);
+    }
+
+    public boolean removeHold(Resource resource, TimeRange range) {
+        DaySchedule day = getDay(resource, range.getStart().toLocalDate());
+        return day != null && day.removeHold(range);
+    }
+
+    // Earliest start at or after 'from' on the same day where the doctor is free for the whole duration.
+    // The requested time itself is returned when free; otherwise the answer is on the five-minute grid.
+    public LocalDateTime findNextAvailable(Doctor doctor, LocalDateTime from, Duration duration) {
+        LocalDate date = from.toLocalDate();
+        LocalDateTime startOfDay = date.atTime(SlotBitmap.DAY_START);
+        LocalDateTime candidate = from.isBefore(startOfDay) ? startOfDay : from.withSecond(0).withNano(0);
+        if (candidate.plus(duration).isAfter(date.atTime(SlotBitmap.DAY_END))) {
+            return null; // No slot available that day
+        }
+
+        DaySchedule day = getDay(doctorKey(doctor), date);
+        int first = SlotBitmap.slotOf(candidate);
+        if (day == null) {
+            return candidate;
+        }
+        int slot = day.findFree(first, SlotBitmap.slotCeil(candidate.plus(duration)), SlotBitmap.slotCount(duration));
+        if (slot == first) {
+            return candidate;
+        }
+        return slot < 0 ? null : date.atTime(SlotBitmap.timeOf(slot));
+    }
+
+    // Closest free start to 'requested' on the same day, earlier or later; ties go to the later slot
+    public LocalDateTime findNearestAvailable(Doctor doctor, LocalDateTime requested, Duration duration) {
+        LocalDateTime later = findNextAvailable(doctor, requested, duration);
+        if (later != null && later.equals(requested.withSecond(0).withNano(0))) {
+            return later;
+        }
+        LocalDateTime earlier = findPreviousAvailable(doctor, requested, duration);
+        if (earlier == null || later == null) {
+            return earlier == null ? later : earlier;
+        }
+        return Duration.between(earlier, requested).compareTo(Duration.between(requested, later)) < 0 ? earlier : later;
+    }
+
+    // Latest grid start before 'requested' on the same day where the doctor is free for the whole duration
+    private LocalDateTime findPreviousAvailable(Doctor doctor, LocalDateTime requested, Duration duration) {
+        LocalDate date = requested.toLocalDate();
+        int length = SlotBitmap.slotCount(duration);
+        int from = Math.min(SlotBitmap.slotCeil(requested) - 1, SlotBitmap.SLOTS_PER_DAY - length);
+        DaySchedule day = getDay(doctorKey(doctor), date);
+        int slot = day == null ? from : day.findFreeBefore(from, length);
+        return slot < 0 ? null : date.atTime(SlotBitmap.timeOf(slot));
+    }
+
+    // True when the doctor is free for the whole duration starting exactly at 'start'
+    public boolean isAvailable(Doctor doctor, LocalDateTime start, Duration duration) {
+        return start.equals(findNextAvailable(doctor, start, duration));
+    }
+
+    // Earliest start on the same day where the doctor and one unit from every pool are free together.
+    // The doctor's bitmap is ORed with, per pool, the AND of its units (slots where every unit is busy);
+    // candidates from that combined scan are then confirmed against single units, since one unit has
+    // to stay free for the whole appointment.
+    public LocalDateTime findNextAvailable(Doctor doctor, List<List<Resource>> pools, LocalDateTime from, Duration duration) {
+        if (pools.isEmpty()) {
+            return findNextAvailable(doctor, from, duration);
+        }
+        LocalDate date = from.toLocalDate();
+        LocalDateTime startOfDay = date.atTime(SlotBitmap.DAY_START);
+        LocalDateTime candidate = from.isBefore(startOfDay) ? startOfDay : from.withSecond(0).withNano(0);
+        if (candidate.plus(duration).isAfter(date.atTime(SlotBitmap.DAY_END))) {
+            return null;
+        }
+
+        long[] combined = snapshot(doctorKey(doctor), date);
+        long[][][] units = new long[pools.size()][][];
+        for (int p = 0; p < pools.size(); p++) {
+            List<Resource> pool = pools.get(p);
+            units[p] = new long[pool.size()][];
+            long[] allBusy = SlotBitmap.newWords();
+            Arrays.fill(allBusy, -1L);
+            for (int u = 0; u < pool.size(); u++) {
+                units[p][u] = snapshot(pool.get(u), date);
+                for (int w = 0; w < allBusy.length; w++) {
+                    allBusy[w] &= units[p][u][w];
+                }
+            }
+            for (int w = 0; w < combined.length; w++) {
+                combined[w] |= allBusy[w];
+            }
+        }
+
+        int first = SlotBitmap.slotOf(candidate);
+        if (fits(combined, units, first, SlotBitmap.slotCeil(candidate.plus(duration)))) {
+            return candidate;
+        }
+        int length = SlotBitmap.slotCount(duration);
+        for (int slot = first + 1; (slot = SlotBitmap.findFree(combined, slot, length)) >= 0; slot++) {
+            if (fits(combined, units, slot, slot + length)) {
+                return date.atTime(SlotBitmap.timeOf(slot));
+            }
+        }
+        return null;
+    }
+
+    public boolean isAvailable(Doctor doctor, List<List<Resource>> pools, LocalDateTime start, Duration duration) {
+        return start.equals(findNextAvailable(doctor, pools, start, duration));
+    }
+
+    // First free unit of each pool for the range, or null when some pool has none
+    public List<Resource> pickResources(List<List<Resource>> pools, LocalDateTime start, Duration duration) {
+        LocalDate date = start.toLocalDate();
+        int from = SlotBitmap.slotOf(start);
+        int to = SlotBitmap.slotCeil(start.plus(duration));
+        List<Resource> picked = new ArrayList<>(pools.size());
+        for (List<Resource> pool : pools) {
+            Resource free = null;
+            for (Resource resource : pool) {
+                if (SlotBitmap.nextBusy(snapshot(resource, date), from, to) < 0) {
+                    free = resource;
+                    break;
+                }
+            }
+            if (free == null) {
+                return null;
+            }
+            picked.add(free);
+        }
+        return picked;
+    }
+
+    private static boolean fits(long[] combined, long[][][] units, int from, int to) {
+        if (SlotBitmap.nextBusy(combined, from, to) >= 0) {
+            return false;
+        }
+        for (long[][] pool : units) {
+            boolean anyFree = false;
+            for (long[] unit : pool) {
+                if (SlotBitmap.nextBusy(unit, from, to) < 0) {
+                    anyFree = true;
+                    break;
+                }
+            }
+            if (!anyFree) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Copy of the day's busy words, taken under the day's monitor
+    private long[] snapshot(Object key, LocalDate date) {
+        long[] words = SlotBitmap.newWords();
+        DaySchedule day = getDay(key, date);
+        if (day != null) {
+            day.copyBusy(words);
+        }
+        return words;
+    }
+
+    // Same search carried forward day by day, starting at 08:00 on the days after 'from'
+    public LocalDateTime findNextAvailable(Doctor doctor, LocalDateTime from, Duration duration, int days) {
+        LocalDateTime start = from;
+        for (int i = 0; i < days; i++) {
+            LocalDateTime slot = findNextAvailable(doctor, start, duration);
+            if (slot != null) {
+                return slot;
+            }
+            start = from.toLocalDate().plusDays(i + 1).atTime(SlotBitmap.DAY_START);
+        }
+        return null;
+    }
+
+    // Free intervals within working hours; a day with no bookings is one interval
+    public List<TimeRange> getFreeSlots(Doctor doctor, LocalDate date) {
+        DaySchedule day = getDay(doctorKey(doctor), date);
+        if (day == null) {
+            return List.of(new TimeRange(date.atTime(SlotBitmap.DAY_START), date.atTime(SlotBitmap.DAY_END)));
+        }
+        return day.freeSlots;
+    }
+
+    public List<Appointment> getAppointments(Doctor doctor, LocalDate date) {
+        DaySchedule day = getDay(doctorKey(doctor), date);
+        return day == null ? List.of() : day.appointments();
+    }
+
+    private DaySchedule getDay(Object key, LocalDate date) {
+        Map<LocalDate, DaySchedule> days = schedules.get(key);
+        return days == null ? null : days.get(date);
+    }
+
+    private DaySchedule dayFor(Object key, LocalDate date) {
+        return schedules.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).computeIfAbsent(date, DaySchedule::new);
+    }
+
+    // Doctors are identified by personal id; older rows without one fall back to the name
+    static String doctorKey(Doctor doctor) {
+        return doctor.getPersonalId() != null ? doctor.getPersonalId() : doctor.getName().toLowerCase();
+    }
+
+    private static class DaySchedule {
+        private final LocalDate date;
+        private final NavigableMap<LocalDateTime, List<Appointment>> byStart = new TreeMap<>();
+        private final List<TimeRange> holds = new ArrayList<>();
+        private final SlotBitmap busy = new SlotBitmap();
+        // Immutable snapshot, replaced on every change so readers never lock
+        private volatile List<TimeRange> freeSlots;
+
+        DaySchedule(LocalDate date) {
+            this.date = date;
+            this.freeSlots = List.of(new TimeRange(date.atTime(SlotBitmap.DAY_START), date.atTime(SlotBitmap.DAY_END)));
+        }
+
+        synchronized void add(Appointment appointment) {
+            byStart.computeIfAbsent(appointment.getDateTime(), k -> new ArrayList<>(1)).add(appointment);
+            markBusy(appointment);
+            refreshFreeSlots();
+        }
+
+        synchronized boolean remove(Appointment appointment) {
+            List<Appointment> atStart = byStart.get(appointment.getDateTime());
+            if (atStart == null || !atStart.remove(appointment)) {
+                return false;
+            }
+            if (atStart.isEmpty()) {
+                byStart.remove(appointment.getDateTime());
+            }
+            rebuild();
+            return true;
+        }
+
+        synchronized void addHold(TimeRange range) {
+            holds.add(range);
+            markBusy(range.getStart(), range.getEnd());
+            refreshFreeSlots();
+        }
+
+        synchronized boolean removeHold(TimeRange range) {
+            if (!holds.remove(range)) {
+                return false;
+            }
+            rebuild();
+            return true;
+        }
+
+        // Overlapping rows and holds may share slots, so the bitmap is rebuilt rather than cleared in place
+        private void rebuild() {
+            busy.clear();
+            byStart.values().forEach(list -> list.forEach(this::markBusy));
+            holds.forEach(range -> markBusy(range.getStart(), range.getEnd()));
+            refreshFreeSlots();
+        }
+
+        // 'first' is returned when [first, firstEnd) is free, so an off-grid start can keep its exact time
+        synchronized int findFree(int first, int firstEnd, int length) {
+            if (busy.nextBusy(first, firstEnd) < 0) {
+                return first;
+            }
+            return busy.findFree(first + 1, length);
+        }
+
+        synchronized void copyBusy(long[] target) {
+            busy.copyTo(target);
+        }
+
+        synchronized int findFreeBefore(int from, int length) {
+            return busy.findFreeBefore(from, length);
+        }
+
+        // Slots partly covered by an appointment count as busy
+        private void markBusy(Appointment appointment) {
+            LocalDateTime start = appointment.getDateTime();
+            markBusy(start, start.plus(appointment.getService().getDurationInMinutes()));
+        }
+
+        private void markBusy(LocalDateTime start, LocalDateTime end) {
+            int to = end.toLocalDate().isAfter(start.toLocalDate()) ? SlotBitmap.SLOTS_PER_DAY : SlotBitmap.slotCeil(end);
+            busy.set(SlotBitmap.slotOf(start), to);
+        }
+
+        private void refreshFreeSlots() {
+            List<TimeRange> free = new ArrayList<>();
+            int slot = busy.nextFree(0);
+            while (slot < SlotBitmap.SLOTS_PER_DAY) {
+                int end = busy.nextBusy(slot, SlotBitmap.SLOTS_PER_DAY);
+                if (end < 0) {
+                    end = SlotBitmap.SLOTS_PER_DAY;
+                }
+                free.add(new TimeRange(date.atTime(SlotBitmap.timeOf(slot)), date.atTime(SlotBitmap.timeOf(end))));
+                slot = busy.nextFree(end);
+            }
+            freeSlots = List.copyOf(free);
+        }
+
+        synchronized List<Appointment> appointments() {
+            List<Appointment> result = new ArrayList<>();
+            byStart.values().forEach(result::addAll);
+            return result;
+        }
+    }
+}
@@ -22,7 +22,7 @@ public class AuditService {
         return instance;
     }
 
-    public void logAction(String action) {
+    public synchronized void logAction(String action) {
         writer.println(action + "," + LocalDateTime.now());
         writer.flush();
     }
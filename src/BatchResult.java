@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of a createAll / updateAll / deleteAll call
+public class BatchResult<T> {
+    private int succeeded;
+    private final List<Failure<T>> failures;
+    private long elapsedMillis;
+
+    public BatchResult() {
+        this.failures = new ArrayList<>();
+    }
+
+    public void addSucceeded(int count) {
+        succeeded += count;
+    }
+
+    public void addFailure(int index, T item, String message) {
+        failures.add(new Failure<>(index, item, message));
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public List<Failure<T>> getFailures() {
+        return failures;
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Batch: " + succeeded + " succeeded, " + failures.size() + " failed, " + elapsedMillis + " ms";
+    }
+
+    public static class Failure<T> {
+        private final int index;
+        private final T item;
+        private final String message;
+
+        public Failure(int index, T item, String message) {
+            this.index = index;
+            this.item = item;
+            this.message = message;
+        }
+
+        // Position of the row in the collection passed to the batch call
+        public int getIndex() {
+            return index;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Row " + index + ": " + message;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 import java.time.LocalDate;
 
 public class Bill {
+    private int id;
     private Appointment appointment;
     private double totalAmount;
     private LocalDate issueDate;
@@ -13,6 +14,15 @@ public class Bill {
         this.paid = false;
     }
 
+    // Database id; 0 until the row has been saved
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public Appointment getAppointment() {
         return appointment;
     }
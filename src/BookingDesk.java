@@ -0,0 +1,99 @@
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The check-and-insert step of every booking. Under the doctor's stripe (and the clinic's when the
+// service needs resource units) the slot is searched again, the caller's commit runs, and only a
+// committed appointment enters the calendar. ClinicService and BookingStressTest both book through here.
+public class BookingDesk {
+    private final AppointmentCalendar calendar;
+    private final SlotHolds slotHolds;
+    // Serializes the check-and-insert for one doctor; different doctors book in parallel
+    private final StripedLock doctorLocks;
+    // Resource units are shared by a clinic's doctors, so bookings that need them also take the
+    // clinic's stripe. Always doctor stripe first, clinic stripe second.
+    private final StripedLock clinicLocks;
+
+    public BookingDesk(AppointmentCalendar calendar, SlotHolds slotHolds, int stripes) {
+        this.calendar = calendar;
+        this.slotHolds = slotHolds;
+        this.doctorLocks = new StripedLock(stripes);
+        this.clinicLocks = new StripedLock(stripes);
+    }
+
+    // Stores the appointment and whatever goes with it; throwing leaves the calendar untouched
+    @FunctionalInterface
+    public interface Commit {
+        Bill commit(Appointment appointment) throws SQLException;
+    }
+
+    // Books the request's time, or proposes the next free slot that day. A request carrying a hold
+    // confirms that exact start: it is booked there or proposed anew, never moved silently.
+    public BookingResult book(Patient patient, Doctor doctor, Clinic clinic, Service service,
+                              BookingRequest request, Commit commit) throws SQLException {
+        LocalDateTime requestedTime = request.getRequestedTime();
+        Duration duration = service.getDurationInMinutes();
+        List<List<Resource>> pools = clinic.getResourcePools(service);
+        List<ReentrantLock> locks = lock(doctor, clinic, pools);
+        try {
+            // The caller's own hold must not block it; an expired hold is simply gone
+            boolean confirming = request.getHold() != null;
+            if (confirming) {
+                requestedTime = request.getHold().getRange().getStart();
+                slotHolds.release(request.getHold());
+                request.setHold(null);
+            }
+            LocalDateTime slot = calendar.findNextAvailable(doctor, pools, requestedTime, duration);
+            if (slot == null) {
+                return BookingResult.rejected("No available slots for the requested service at this time");
+            }
+            List<Resource> resources = calendar.pickResources(pools, slot, duration);
+            if (!slot.isEqual(requestedTime) && (confirming || !request.isAcceptAlternative())) {
+                SlotHold hold = request.isHoldAlternative() ? slotHolds.place(doctor, resources, slot, duration) : null;
+                return BookingResult.alternative(slot, hold);
+            }
+
+            Appointment appointment = new Appointment(patient, doctor, clinic, service, slot);
+            appointment.setResources(resources);
+            Bill bill = commit.commit(appointment);
+            calendar.add(appointment);
+            return BookingResult.booked(appointment, bill);
+        } finally {
+            unlock(locks);
+        }
+    }
+
+    // Drops a hold returned with an ALTERNATIVE_PROPOSED result that the caller will not book
+    public boolean releaseHold(SlotHold hold) {
+        return hold != null && slotHolds.release(hold);
+    }
+
+    // For other writers of the calendar (series, recalls, cancellations), in the same order as book()
+    public List<ReentrantLock> lock(Doctor doctor, Clinic clinic, List<List<Resource>> pools) {
+        List<ReentrantLock> locks = new ArrayList<>(2);
+        locks.add(doctorLocks.get(AppointmentCalendar.doctorKey(doctor)));
+        if (!pools.isEmpty()) {
+            locks.add(clinicLocks.get(clinic.getName().toLowerCase()));
+        }
+        locks.forEach(ReentrantLock::lock);
+        return locks;
+    }
+
+    // Enough for removals, which can only free resource units
+    public ReentrantLock doctorLock(Doctor doctor) {
+        return doctorLocks.get(AppointmentCalendar.doctorKey(doctor));
+    }
+
+    public static void unlock(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    public SlotHolds getSlotHolds() {
+        return slotHolds;
+    }
+}
@@ -0,0 +1,84 @@
+import java.time.LocalDateTime;
+
+// Everything needed to book one appointment without asking the user anything
+public class BookingRequest {
+    private final String patientName;
+    private final String doctorName;
+    private final String clinicName;
+    private final String serviceName;
+    private LocalDateTime requestedTime;
+    private boolean acceptAlternative;
+    private Patient newPatient;
+    private boolean holdAlternative;
+    private SlotHold hold;
+
+    public BookingRequest(String patientName, String doctorName, String clinicName, String serviceName, LocalDateTime requestedTime) {
+        this.patientName = patientName;
+        this.doctorName = doctorName;
+        this.clinicName = clinicName;
+        this.serviceName = serviceName;
+        this.requestedTime = requestedTime;
+    }
+
+    public String getPatientName() {
+        return patientName;
+    }
+
+    public String getDoctorName() {
+        return doctorName;
+    }
+
+    public String getClinicName() {
+        return clinicName;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public LocalDateTime getRequestedTime() {
+        return requestedTime;
+    }
+
+    public void setRequestedTime(LocalDateTime requestedTime) {
+        this.requestedTime = requestedTime;
+    }
+
+    // When set, the next free slot is booked instead of being proposed back. Ignored while a hold is
+    // attached: confirming a proposal books only the held start.
+    public boolean isAcceptAlternative() {
+        return acceptAlternative;
+    }
+
+    public void setAcceptAlternative(boolean acceptAlternative) {
+        this.acceptAlternative = acceptAlternative;
+    }
+
+    // Registered together with the booking when the clinic has no patient by that name
+    public Patient getNewPatient() {
+        return newPatient;
+    }
+
+    public void setNewPatient(Patient newPatient) {
+        this.newPatient = newPatient;
+    }
+
+    // When set, a proposed alternative slot is held for the caller until it answers or the hold expires
+    public boolean isHoldAlternative() {
+        return holdAlternative;
+    }
+
+    public void setHoldAlternative(boolean holdAlternative) {
+        this.holdAlternative = holdAlternative;
+    }
+
+    // A hold from an earlier proposal; the request then books exactly the held start, and the hold is
+    // released when it is processed
+    public SlotHold getHold() {
+        return hold;
+    }
+
+    public void setHold(SlotHold hold) {
+        this.hold = hold;
+    }
+}
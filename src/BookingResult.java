@@ -0,0 +1,86 @@
+import java.time.LocalDateTime;
+
+// Outcome of ClinicService.book
+public class BookingResult {
+    public enum Status {
+        BOOKED,
+        ALTERNATIVE_PROPOSED,
+        REJECTED
+    }
+
+    private final Status status;
+    private final Appointment appointment;
+    private final Bill bill;
+    private final LocalDateTime proposedSlot;
+    private final String reason;
+    private final SlotHold hold;
+    private long elapsedMillis;
+
+    private BookingResult(Status status, Appointment appointment, Bill bill, LocalDateTime proposedSlot, String reason, SlotHold hold) {
+        this.status = status;
+        this.appointment = appointment;
+        this.bill = bill;
+        this.proposedSlot = proposedSlot;
+        this.reason = reason;
+        this.hold = hold;
+    }
+
+    public static BookingResult booked(Appointment appointment, Bill bill) {
+        return new BookingResult(Status.BOOKED, appointment, bill, appointment.getDateTime(), null, null);
+    }
+
+    public static BookingResult alternative(LocalDateTime proposedSlot, SlotHold hold) {
+        return new BookingResult(Status.ALTERNATIVE_PROPOSED, null, null, proposedSlot, "Requested time is not available", hold);
+    }
+
+    public static BookingResult rejected(String reason) {
+        return new BookingResult(Status.REJECTED, null, null, null, reason, null);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isBooked() {
+        return status == Status.BOOKED;
+    }
+
+    public Appointment getAppointment() {
+        return appointment;
+    }
+
+    public Bill getBill() {
+        return bill;
+    }
+
+    // The booked slot, or the slot to offer when the requested one was taken
+    public LocalDateTime getProposedSlot() {
+        return proposedSlot;
+    }
+
+    // Keeps the proposed slot free for the caller; null unless the request asked for a hold
+    public SlotHold getHold() {
+        return hold;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return switch (status) {
+            case BOOKED -> "Booked at " + proposedSlot;
+            case ALTERNATIVE_PROPOSED -> reason + "; next free slot is " + proposedSlot;
+            case REJECTED -> "Rejected: " + reason;
+        };
+    }
+}
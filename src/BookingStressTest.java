@@ -0,0 +1,239 @@
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Hammers BookingDesk.book, the check-and-insert ClinicService uses, from many threads without a
+// database, and fails if any doctor or resource unit ends up double booked. Half the bookings need a
+// chair, so the clinic stripe is taken as well; taken slots come back as held proposals that are
+// confirmed or released; one commit in fifty fails and must leave no trace in the calendar.
+// The first series has no simulated commit wait, so its scaling comes from the CPU alone; the second
+// parks each commit for commitMicros, which shows how lock hold time limits throughput.
+// Run: java BookingStressTest [doctors] [bookingsPerThread] [commitMicros]
+public class BookingStressTest {
+    private static final int BOOKING_LOCK_STRIPES = 64;
+    private static final int DOCTORS_PER_CLINIC = 10;
+    private static final int CHAIRS_PER_CLINIC = 2;
+    private static final int DAYS = 30;
+    private static final int MAX_PROPOSALS = 3;
+
+    private static final AtomicBoolean crashed = new AtomicBoolean();
+
+    public static void main(String[] args) throws InterruptedException {
+        int doctorCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        long commitMicros = args.length > 2 ? Long.parseLong(args[2]) : 100;
+
+        Service checkup = new Service("Checkup", 100, 30);
+        Service filling = new Service("Filling", 200, 45);
+        filling.addRequiredResourceType("CHAIR");
+        List<Doctor> doctors = new ArrayList<>();
+        Map<Doctor, Clinic> clinicOf = new IdentityHashMap<>();
+        Clinic clinic = null;
+        for (int i = 0; i < doctorCount; i++) {
+            if (i % DOCTORS_PER_CLINIC == 0) {
+                clinic = new Clinic("Stress " + i / DOCTORS_PER_CLINIC, "nowhere");
+                for (int c = 0; c < CHAIRS_PER_CLINIC; c++) {
+                    clinic.addResource(new Resource("Chair " + c, "CHAIR", clinic));
+                }
+                clinic.addService(checkup);
+                clinic.addService(filling);
+            }
+            Doctor doctor = new Doctor("Doctor " + i, "D" + i, "d" + i + "@clinic", "0", clinic, "General", 1);
+            clinic.addDoctor(doctor);
+            doctors.add(doctor);
+            clinicOf.put(doctor, clinic);
+        }
+        Patient patient = new Patient("Stress Patient", "P0", "p@clinic", "0", "None");
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println(cores + " cores available");
+        boolean failed = series("No commit wait (CPU only)", doctors, clinicOf, patient, checkup, filling, perThread, 0, cores);
+        if (commitMicros > 0) {
+            failed |= series("Commit wait of " + commitMicros + " us under the locks", doctors, clinicOf, patient, checkup,
+                    filling, perThread, TimeUnit.MICROSECONDS.toNanos(commitMicros), cores);
+        }
+
+        if (failed || crashed.get()) {
+            System.out.println("FAILED: double bookings, lost appointments or leaked holds");
+            System.exit(1);
+        }
+        System.out.println("OK: no doctor or resource was double booked");
+    }
+
+    private static boolean series(String label, List<Doctor> doctors, Map<Doctor, Clinic> clinicOf, Patient patient,
+                                  Service checkup, Service filling, int perThread, long commitNanos, int cores)
+            throws InterruptedException {
+        System.out.println(label + ":");
+        // Untimed, so the single-thread baseline is not paying for JIT compilation
+        pass(1, doctors, clinicOf, patient, checkup, filling, perThread, commitNanos);
+        boolean failed = false;
+        double baseline = 0;
+        for (int threads = 1; threads <= Math.max(cores * 2, 8); threads *= 2) {
+            Pass pass = pass(threads, doctors, clinicOf, patient, checkup, filling, perThread, commitNanos);
+            double perSecond = pass.booked * 1_000_000_000.0 / pass.elapsedNanos;
+            if (threads == 1) {
+                baseline = perSecond;
+            }
+            System.out.printf("%3d threads: %7d booked, %5d failed commits, %9.0f/s (x%.1f), overlaps %d, stored %d, holds left %d%n",
+                    threads, pass.booked, pass.failedCommits, perSecond, perSecond / baseline, pass.overlaps, pass.stored, pass.leakedHolds);
+            if (pass.overlaps > 0 || pass.stored != pass.booked || pass.leakedHolds > 0) {
+                failed = true;
+            }
+        }
+        return failed;
+    }
+
+    private static class Pass {
+        private int booked;
+        private int failedCommits;
+        private int overlaps;
+        private int stored;
+        private int leakedHolds;
+        private long elapsedNanos;
+    }
+
+    // One run of 'threads' workers against a fresh calendar
+    private static Pass pass(int threads, List<Doctor> doctors, Map<Doctor, Clinic> clinicOf, Patient patient,
+                             Service checkup, Service filling, int perThread, long commitNanos) throws InterruptedException {
+        AppointmentCalendar calendar = new AppointmentCalendar();
+        SlotHolds holds = new SlotHolds(calendar, Duration.ofMinutes(2));
+        BookingDesk desk = new BookingDesk(calendar, holds, BOOKING_LOCK_STRIPES);
+        Queue<Appointment> booked = new ConcurrentLinkedQueue<>();
+        AtomicInteger failedCommits = new AtomicInteger();
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+
+        BookingDesk.Commit commit = appointment -> {
+            // Stands in for the database transaction that runs under the booking locks
+            if (commitNanos > 0) {
+                LockSupport.parkNanos(commitNanos);
+            }
+            if (ThreadLocalRandom.current().nextInt(50) == 0) {
+                failedCommits.incrementAndGet();
+                throw new SQLException("Simulated commit failure");
+            }
+            return null;
+        };
+
+        Pass pass = new Pass();
+        pass.elapsedNanos = run(threads, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < perThread; i++) {
+                Doctor doctor = doctors.get(random.nextInt(doctors.size()));
+                Clinic clinic = clinicOf.get(doctor);
+                Service service = random.nextBoolean() ? checkup : filling;
+                LocalDateTime from = firstDay.plusDays(random.nextInt(DAYS)).atTime(SlotBitmap.DAY_START)
+                        .plusMinutes(SlotBitmap.SLOT_MINUTES * random.nextInt(SlotBitmap.SLOTS_PER_DAY));
+                BookingRequest request = new BookingRequest(patient.getName(), doctor.getName(), clinic.getName(),
+                        service.getName(), from);
+                request.setHoldAlternative(true);
+                try {
+                    BookingResult result = desk.book(patient, doctor, clinic, service, request, commit);
+                    // Like the console: confirm a held proposal or walk away from it
+                    for (int p = 0; p < MAX_PROPOSALS && result.getStatus() == BookingResult.Status.ALTERNATIVE_PROPOSED; p++) {
+                        if (random.nextInt(4) == 0) {
+                            break;
+                        }
+                        request.setHold(result.getHold());
+                        result = desk.book(patient, doctor, clinic, service, request, commit);
+                    }
+                    if (result.isBooked()) {
+                        booked.add(result.getAppointment());
+                    } else {
+                        desk.releaseHold(result.getHold());
+                    }
+                } catch (SQLException e) {
+                    // The desk released the locks and left the calendar as it was
+                }
+            }
+        });
+
+        List<Appointment> all = new ArrayList<>(booked);
+        pass.booked = all.size();
+        pass.failedCommits = failedCommits.get();
+        pass.overlaps = countOverlaps(all, a -> List.of(AppointmentCalendar.doctorKey(a.getDoctor())))
+                + countOverlaps(all, Appointment::getResources);
+        pass.stored = countAppointments(calendar, doctors, firstDay);
+        pass.leakedHolds = holds.getActiveCount();
+        holds.shutdown();
+        return pass;
+    }
+
+    // Wall-clock nanoseconds for 'threads' workers started together
+    private static long run(int threads, Runnable work) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    work.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    crashed.set(true);
+                    e.printStackTrace();
+                } finally {
+                    done.countDown();
+                }
+            }, "booking-stress-" + t);
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - begin;
+    }
+
+    private interface Occupant {
+        List<?> of(Appointment appointment);
+    }
+
+    // Appointments that start before the previous one on the same doctor or unit, same day, has ended
+    private static int countOverlaps(List<Appointment> appointments, Occupant occupant) {
+        Map<Object, Map<LocalDate, List<Appointment>>> byOccupant = new HashMap<>();
+        for (Appointment appointment : appointments) {
+            for (Object key : occupant.of(appointment)) {
+                byOccupant.computeIfAbsent(key, k -> new HashMap<>())
+                        .computeIfAbsent(appointment.getDateTime().toLocalDate(), k -> new ArrayList<>()).add(appointment);
+            }
+        }
+        int overlaps = 0;
+        for (Map<LocalDate, List<Appointment>> days : byOccupant.values()) {
+            for (List<Appointment> day : days.values()) {
+                day.sort(Comparator.comparing(Appointment::getDateTime));
+                for (int i = 1; i < day.size(); i++) {
+                    Appointment previous = day.get(i - 1);
+                    if (day.get(i).getDateTime().isBefore(previous.getDateTime().plus(previous.getService().getDurationInMinutes()))) {
+                        overlaps++;
+                    }
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    private static int countAppointments(AppointmentCalendar calendar, List<Doctor> doctors, LocalDate firstDay) {
+        int count = 0;
+        for (Doctor doctor : doctors) {
+            for (int d = 0; d < DAYS; d++) {
+                count += calendar.getAppointments(doctor, firstDay.plusDays(d)).size();
+            }
+        }
+        return count;
+    }
+}
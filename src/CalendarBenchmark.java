@@ -0,0 +1,208 @@
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// Times the free-slot search three ways on the same random calendar: the original scan over every
+// appointment, the per-day TreeMap walk, and the SlotBitmap search AppointmentCalendar uses now.
+// Every query is also answered by all three and the program fails if any answer differs.
+// Bookings and queries sit on the five-minute grid, where the bitmap answers exactly.
+// The two old searches use the half-open overlap rule the calendar keeps (a visit may start when
+// the previous one ends); the original scan also counted that touch as an overlap.
+// Run: java CalendarBenchmark [doctors] [days] [queries] [seed]
+public class CalendarBenchmark {
+    private static final int[] VISIT_MINUTES = {15, 30, 45, 60, 90};
+    private static final int ROUNDS = 5;
+
+    private static volatile int blackhole;
+
+    public static void main(String[] args) {
+        int doctorCount = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int queryCount = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        Random random = new Random(args.length > 3 ? Long.parseLong(args[3]) : 42);
+
+        Clinic clinic = new Clinic("Benchmark", "nowhere");
+        Patient patient = new Patient("Benchmark Patient", "P0", "p@clinic", "0", "None");
+        Map<Integer, Service> services = new HashMap<>();
+        for (int minutes : VISIT_MINUTES) {
+            services.put(minutes, new Service("Visit " + minutes, 100, minutes));
+        }
+        List<Doctor> doctors = new ArrayList<>();
+        for (int i = 0; i < doctorCount; i++) {
+            doctors.add(new Doctor("Doctor " + i, "D" + i, "d" + i + "@clinic", "0", clinic, "General", 1));
+        }
+
+        // Each doctor-day is filled to a random load, from nearly empty to nearly full
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+        AppointmentCalendar calendar = new AppointmentCalendar();
+        List<Appointment> all = new ArrayList<>();
+        for (Doctor doctor : doctors) {
+            for (int d = 0; d < days; d++) {
+                int attempts = random.nextInt(40);
+                for (int a = 0; a < attempts; a++) {
+                    Service service = services.get(VISIT_MINUTES[random.nextInt(VISIT_MINUTES.length)]);
+                    LocalDateTime start = gridTime(firstDay.plusDays(d), random);
+                    if (calendar.isAvailable(doctor, start, service.getDurationInMinutes())) {
+                        Appointment appointment = new Appointment(patient, doctor, clinic, service, start);
+                        calendar.add(appointment);
+                        all.add(appointment);
+                    }
+                }
+            }
+        }
+        TreeMapIndex treeMaps = new TreeMapIndex(all);
+
+        Doctor[] queryDoctors = new Doctor[queryCount];
+        LocalDateTime[] queryFrom = new LocalDateTime[queryCount];
+        Duration[] queryDuration = new Duration[queryCount];
+        for (int q = 0; q < queryCount; q++) {
+            queryDoctors[q] = doctors.get(random.nextInt(doctors.size()));
+            queryFrom[q] = gridTime(firstDay.plusDays(random.nextInt(days)), random);
+            queryDuration[q] = Duration.ofMinutes(VISIT_MINUTES[random.nextInt(VISIT_MINUTES.length)]);
+        }
+        System.out.printf("%d doctors, %d days, %d appointments, %d queries%n", doctorCount, days, all.size(), queryCount);
+
+        int mismatches = 0;
+        for (int q = 0; q < queryCount; q++) {
+            LocalDateTime bitmap = calendar.findNextAvailable(queryDoctors[q], queryFrom[q], queryDuration[q]);
+            LocalDateTime walk = treeMaps.findNextAvailable(queryDoctors[q], queryFrom[q], queryDuration[q]);
+            LocalDateTime scan = scanAll(all, queryDoctors[q], queryFrom[q], queryDuration[q]);
+            if (!same(bitmap, walk) || !same(bitmap, scan)) {
+                if (mismatches++ < 10) {
+                    System.out.println("Mismatch for " + queryDoctors[q].getName() + " from " + queryFrom[q] + " for " +
+                            queryDuration[q] + ": bitmap " + bitmap + ", tree map " + walk + ", scan " + scan);
+                }
+            }
+        }
+
+        // The full scan is far slower, so it gets a slice of the queries and is scaled per query
+        int scanQueries = Math.min(queryCount, 2_000);
+        double scanNanos = time(scanQueries, q -> scanAll(all, queryDoctors[q], queryFrom[q], queryDuration[q]));
+        double walkNanos = time(queryCount, q -> treeMaps.findNextAvailable(queryDoctors[q], queryFrom[q], queryDuration[q]));
+        double bitmapNanos = time(queryCount, q -> calendar.findNextAvailable(queryDoctors[q], queryFrom[q], queryDuration[q]));
+        System.out.printf("scan over all appointments: %10.0f ns/query%n", scanNanos);
+        System.out.printf("per-day TreeMap walk:       %10.0f ns/query%n", walkNanos);
+        System.out.printf("SlotBitmap search:          %10.0f ns/query (x%.1f vs TreeMap, x%.0f vs scan)%n",
+                bitmapNanos, walkNanos / bitmapNanos, scanNanos / bitmapNanos);
+
+        if (mismatches > 0) {
+            System.out.println("FAILED: " + mismatches + " queries got different answers");
+            System.exit(1);
+        }
+        System.out.println("OK: all searches agree");
+    }
+
+    private static LocalDateTime gridTime(LocalDate date, Random random) {
+        return date.atTime(SlotBitmap.DAY_START).plusMinutes((long) SlotBitmap.SLOT_MINUTES * random.nextInt(SlotBitmap.SLOTS_PER_DAY));
+    }
+
+    private static boolean same(LocalDateTime a, LocalDateTime b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private interface Query {
+        LocalDateTime run(int index);
+    }
+
+    // Best of several rounds, in nanoseconds per query; the first round doubles as warm-up
+    private static double time(int queries, Query query) {
+        long best = Long.MAX_VALUE;
+        int sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                LocalDateTime slot = query.run(q);
+                sink += slot == null ? 0 : slot.getMinute();
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        // Keeps the answers live so the searches cannot be optimized away
+        blackhole = sink;
+        return (double) best / queries;
+    }
+
+    // The search as it was before the calendar existed: filter every appointment, then step five minutes
+    private static LocalDateTime scanAll(List<Appointment> all, Doctor doctor, LocalDateTime from, Duration duration) {
+        List<Appointment> doctorAppointments = all.stream()
+                .filter(a -> a.getDoctor().getName().equalsIgnoreCase(doctor.getName()))
+                .filter(a -> a.getDateTime().toLocalDate().equals(from.toLocalDate()))
+                .sorted(Comparator.comparing(Appointment::getDateTime))
+                .collect(Collectors.toList());
+
+        LocalDateTime startOfDay = from.toLocalDate().atTime(SlotBitmap.DAY_START);
+        LocalDateTime endOfDay = from.toLocalDate().atTime(SlotBitmap.DAY_END);
+        LocalDateTime current = from.isBefore(startOfDay) ? startOfDay : from.withSecond(0).withNano(0);
+        while (!current.plus(duration).isAfter(endOfDay)) {
+            LocalDateTime slotEnd = current.plus(duration);
+            LocalDateTime candidate = current;
+            boolean overlaps = doctorAppointments.stream().anyMatch(a -> slotEnd.isAfter(a.getDateTime())
+                    && candidate.isBefore(a.getDateTime().plus(a.getService().getDurationInMinutes())));
+            if (!overlaps) {
+                return current;
+            }
+            current = current.plusMinutes(SlotBitmap.SLOT_MINUTES);
+        }
+        return null;
+    }
+
+    // The per-doctor, per-day TreeMap index the calendar used before the bitmap
+    private static class TreeMapIndex {
+        private final Map<String, Map<LocalDate, NavigableMap<LocalDateTime, List<Appointment>>>> days = new HashMap<>();
+        private final Map<String, Map<LocalDate, Duration>> longest = new HashMap<>();
+
+        TreeMapIndex(List<Appointment> appointments) {
+            for (Appointment appointment : appointments) {
+                String key = AppointmentCalendar.doctorKey(appointment.getDoctor());
+                LocalDate date = appointment.getDateTime().toLocalDate();
+                days.computeIfAbsent(key, k -> new HashMap<>()).computeIfAbsent(date, k -> new TreeMap<>())
+                        .computeIfAbsent(appointment.getDateTime(), k -> new ArrayList<>(1)).add(appointment);
+                longest.computeIfAbsent(key, k -> new HashMap<>())
+                        .merge(date, appointment.getService().getDurationInMinutes(), (a, b) -> a.compareTo(b) >= 0 ? a : b);
+            }
+        }
+
+        LocalDateTime findNextAvailable(Doctor doctor, LocalDateTime from, Duration duration) {
+            String key = AppointmentCalendar.doctorKey(doctor);
+            LocalDate date = from.toLocalDate();
+            NavigableMap<LocalDateTime, List<Appointment>> byStart = days.getOrDefault(key, Map.of()).get(date);
+            Duration reach = longest.getOrDefault(key, Map.of()).getOrDefault(date, Duration.ZERO);
+            LocalDateTime startOfDay = date.atTime(SlotBitmap.DAY_START);
+            LocalDateTime endOfDay = date.atTime(SlotBitmap.DAY_END);
+
+            LocalDateTime candidate = from.isBefore(startOfDay) ? startOfDay : from.withSecond(0).withNano(0);
+            while (!candidate.plus(duration).isAfter(endOfDay)) {
+                LocalDateTime busyUntil = byStart == null ? null : busyUntil(byStart, reach, candidate, candidate.plus(duration));
+                if (busyUntil == null) {
+                    return candidate;
+                }
+                // Every start before the latest overlapping end would still hit that appointment
+                candidate = busyUntil;
+            }
+            return null;
+        }
+
+        // Latest end among appointments overlapping [start, end), or null when the range is free
+        private static LocalDateTime busyUntil(NavigableMap<LocalDateTime, List<Appointment>> byStart, Duration reach,
+                                               LocalDateTime start, LocalDateTime end) {
+            LocalDateTime busyUntil = null;
+            for (List<Appointment> atStart : byStart.subMap(start.minus(reach), false, end, false).values()) {
+                for (Appointment appointment : atStart) {
+                    LocalDateTime appointmentEnd = appointment.getDateTime().plus(appointment.getService().getDurationInMinutes());
+                    if (appointmentEnd.isAfter(start) && (busyUntil == null || appointmentEnd.isAfter(busyUntil))) {
+                        busyUntil = appointmentEnd;
+                    }
+                }
+            }
+            return busyUntil;
+        }
+    }
+}
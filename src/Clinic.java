@@ -1,22 +1,65 @@
+import java.lang.ref.SoftReference;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 
 public class Clinic {
+    private int id;
     private String name;
     private String address;
     private List<Doctor> doctors;
     private List<Service> services;
-    private List<Patient> patients;
+    private List<Resource> resources;
+    // Case-folded lookups over the lists above, kept in step by the add/remove methods.
+    // A duplicate name resolves to the first entry added, as the old list scans did.
+    private final Map<String, Doctor> doctorsByName = new ConcurrentHashMap<>();
+    private final Map<String, Doctor> doctorsById = new ConcurrentHashMap<>();
+    private final Map<String, Service> servicesByName = new ConcurrentHashMap<>();
+    private final Map<Integer, Service> servicesById = new ConcurrentHashMap<>();
+    // Patients are a working set. With a source they load on first use and are only softly reachable,
+    // so the collector may drop them and the next access reads them again; without one they stay put.
+    private volatile PatientSource patientSource;
+    private PatientSet pinnedPatients = new PatientSet();
+    private SoftReference<PatientSet> softPatients = new SoftReference<>(null);
+
+    public interface PatientSource {
+        List<Patient> loadAll() throws SQLException;
+
+        Patient loadByName(String name) throws SQLException;
+    }
+
+    private static class PatientSet {
+        // Iterate inside synchronized (list) when other threads may be adding
+        final List<Patient> list = Collections.synchronizedList(new ArrayList<>());
+        final Map<String, Patient> byName = new ConcurrentHashMap<>();
+        final Map<String, Patient> byId = new ConcurrentHashMap<>();
+        volatile boolean complete;
+    }
 
     public Clinic(String name, String address) {
         this.name = name;
         this.address = address;
-        this.doctors = new ArrayList<>();
-        this.services = new ArrayList<>();
-        this.patients = new ArrayList<>();
+        // Doctors and services are read on every booking and rarely change
+        this.doctors = new CopyOnWriteArrayList<>();
+        this.services = new CopyOnWriteArrayList<>();
+        this.resources = new CopyOnWriteArrayList<>();
     }
 
     // Getters and Setters
+    // Database id; 0 until the row has been saved
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public String getName() {
         return name;
     }
@@ -29,36 +72,217 @@ public class Clinic {
         return doctors;
     }
 
-    public void addDoctor(Doctor doctor) {
+    public synchronized void addDoctor(Doctor doctor) {
         doctors.add(doctor);
+        index(doctorsByName, doctor.getName(), doctor);
+        index(doctorsById, doctor.getPersonalId(), doctor);
+    }
+
+    public synchronized void removeDoctor(Doctor doctor) {
+        if (doctors.remove(doctor)) {
+            unindex(doctorsByName, doctor.getName(), doctor, doctors, Doctor::getName);
+            unindex(doctorsById, doctor.getPersonalId(), doctor, doctors, Doctor::getPersonalId);
+        }
+    }
+
+    public Doctor findDoctorByName(String name) {
+        return lookup(doctorsByName, name);
+    }
+
+    public Doctor findDoctorById(String personalId) {
+        return lookup(doctorsById, personalId);
     }
 
     public List<Service> getServices() {
         return services;
     }
 
-    public void addService(Service service) {
+    public synchronized void addService(Service service) {
         services.add(service);
+        index(servicesByName, service.getName(), service);
+        if (service.getId() != 0) {
+            servicesById.putIfAbsent(service.getId(), service);
+        }
+    }
+
+    public synchronized void removeService(Service service) {
+        if (services.remove(service)) {
+            unindex(servicesByName, service.getName(), service, services, Service::getName);
+            servicesById.remove(service.getId(), service);
+        }
+    }
+
+    public Service findServiceByName(String name) {
+        return lookup(servicesByName, name);
+    }
+
+    public Service findServiceById(int id) {
+        return servicesById.get(id);
+    }
+
+    public synchronized void setPatientSource(PatientSource source) {
+        PatientSet current = patientSet();
+        patientSource = source;
+        if (source == null) {
+            pinnedPatients = current;
+        } else {
+            pinnedPatients = null;
+            softPatients = new SoftReference<>(current);
+        }
+    }
+
+    private synchronized PatientSet patientSet() {
+        if (pinnedPatients != null) {
+            return pinnedPatients;
+        }
+        PatientSet set = softPatients.get();
+        if (set == null) {
+            set = new PatientSet();
+            softPatients = new SoftReference<>(set);
+        }
+        return set;
     }
 
+    // Every patient; with a source the first call reads them all, so lookups should use the find methods.
+    // Iterate inside synchronized (getPatients()) when other threads may be adding
     public List<Patient> getPatients() {
-        return patients;
+        PatientSet set = patientSet();
+        PatientSource source = patientSource;
+        if (source != null && !set.complete) {
+            synchronized (set.list) {
+                if (!set.complete) {
+                    try {
+                        for (Patient patient : source.loadAll()) {
+                            add(set, patient);
+                        }
+                        set.complete = true;
+                    } catch (SQLException e) {
+                        System.err.println("Error loading patients for clinic " + name + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+        return set.list;
     }
 
+    // A patient already listed under the same personalId is not added twice
     public void addPatient(Patient patient) {
-        if (!patients.contains(patient)) {
-            patients.add(patient);
+        add(patientSet(), patient);
+    }
+
+    // Returns the entry that ends up listed: the patient, or the one already there with its personalId
+    private static Patient add(PatientSet set, Patient patient) {
+        synchronized (set.list) {
+            String key = indexKey(patient.getPersonalId());
+            Patient existing = key != null ? set.byId.get(key) : (set.list.contains(patient) ? patient : null);
+            if (existing != null) {
+                return existing;
+            }
+            set.list.add(patient);
+            index(set.byName, patient.getName(), patient);
+            index(set.byId, patient.getPersonalId(), patient);
+            return patient;
         }
     }
 
+    public void removePatient(Patient patient) {
+        PatientSet set = patientSet();
+        synchronized (set.list) {
+            if (set.list.remove(patient)) {
+                unindex(set.byName, patient.getName(), patient, set.list, Patient::getName);
+                unindex(set.byId, patient.getPersonalId(), patient, set.list, Patient::getPersonalId);
+            }
+        }
+    }
 
+    public Patient findPatientByName(String name) {
+        PatientSet set = patientSet();
+        Patient patient = lookup(set.byName, name);
+        PatientSource source = patientSource;
+        if (patient == null && name != null && source != null && !set.complete) {
+            try {
+                Patient loaded = source.loadByName(name);
+                if (loaded != null) {
+                    patient = add(set, loaded);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error loading patient " + name + ": " + e.getMessage());
+            }
+        }
+        return patient;
+    }
+
+    // Only patients already in the working set
+    public Patient findPatientById(String personalId) {
+        return lookup(patientSet().byId, personalId);
+    }
 
+    static String indexKey(String value) {
+        return value == null ? null : value.toLowerCase();
+    }
+
+    private static <T> void index(Map<String, T> index, String value, T entity) {
+        String key = indexKey(value);
+        if (key != null) {
+            index.putIfAbsent(key, entity);
+        }
+    }
+
+    private static <T> T lookup(Map<String, T> index, String value) {
+        String key = indexKey(value);
+        return key == null ? null : index.get(key);
+    }
+
+    // Hands the key to the next entry with the same value, if any; only runs on removal
+    private static <T> void unindex(Map<String, T> index, String value, T entity, List<T> remaining,
+                                    Function<T, String> field) {
+        String key = indexKey(value);
+        if (key == null || !index.remove(key, entity)) {
+            return;
+        }
+        for (T other : remaining) {
+            if (key.equals(indexKey(field.apply(other)))) {
+                index.putIfAbsent(key, other);
+                return;
+            }
+        }
+    }
+
+    public List<Resource> getResources() {
+        return resources;
+    }
+
+    public void addResource(Resource resource) {
+        resources.add(resource);
+    }
+
+    // One list of interchangeable units per resource type the service needs; empty when it needs none.
+    // A type the clinic does not have yields an empty list, so no slot can satisfy it.
+    public List<List<Resource>> getResourcePools(Service service) {
+        if (service.getRequiredResourceTypes().isEmpty()) {
+            return List.of();
+        }
+        List<List<Resource>> pools = new ArrayList<>();
+        synchronized (service.getRequiredResourceTypes()) {
+            for (String type : service.getRequiredResourceTypes()) {
+                List<Resource> pool = new ArrayList<>();
+                for (Resource resource : resources) {
+                    if (resource.getType().equalsIgnoreCase(type)) {
+                        pool.add(resource);
+                    }
+                }
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
 
     @Override
     public String toString() {
         return "Clinic: " + name + ", Address: " + address +
                 ", Doctors: " + doctors.size() +
                 ", Services: " + services.size() +
-                ", Patients: " + patients.size();
+                ", Patients: " + patientSet().list.size() +
+                ", Resources: " + resources.size();
     }
 }
@@ -1,13 +1,17 @@
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class ClinicNetwork {
     private String networkName;
     private List<Clinic> clinics;
+    // Case-folded clinic names; the first clinic added under a name wins, as the old scan did
+    private final Map<String, Clinic> clinicsByName = new ConcurrentHashMap<>();
 
     public ClinicNetwork(String networkName) {
         this.networkName = networkName;
-        this.clinics = new ArrayList<>();
+        this.clinics = new CopyOnWriteArrayList<>();
     }
 
     public String getNetworkName() {
@@ -20,19 +24,30 @@ public class ClinicNetwork {
 
     public void addClinic(Clinic clinic) {
         clinics.add(clinic);
+        String key = Clinic.indexKey(clinic.getName());
+        if (key != null) {
+            clinicsByName.putIfAbsent(key, clinic);
+        }
     }
 
     public void removeClinic(Clinic clinic) {
-        clinics.remove(clinic);
+        if (!clinics.remove(clinic)) {
+            return;
+        }
+        String key = Clinic.indexKey(clinic.getName());
+        if (key != null && clinicsByName.remove(key, clinic)) {
+            for (Clinic other : clinics) {
+                if (key.equals(Clinic.indexKey(other.getName()))) {
+                    clinicsByName.putIfAbsent(key, other);
+                    break;
+                }
+            }
+        }
     }
 
     public Clinic findClinicByName(String name) {
-        for (Clinic clinic : clinics) {
-            if (clinic.getName().equalsIgnoreCase(name)) {
-                return clinic;
-            }
-        }
-        return null;
+        String key = Clinic.indexKey(name);
+        return key == null ? null : clinicsByName.get(key);
     }
 
     @Override
@@ -1,18 +1,55 @@
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
 import java.time.LocalDate;
 import java.sql.SQLException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class ClinicService {
+    private static final int PAGE_SIZE = 50;
+    private static final int BOOKING_LOCK_STRIPES = 64;
+    // One pooled connection per startup stage; stays under the pool's maximum
+    private static final int STARTUP_LOADER_THREADS = 6;
+    private static final int SEARCH_HORIZON_DAYS = 60;
+    // How long a proposed slot stays reserved while the caller decides
+    private static final Duration SLOT_HOLD_TTL = Duration.ofMinutes(2);
+    // How far past a fully booked day a series occurrence may move
+    private static final int SERIES_FALLBACK_DAYS = 7;
+    // Appointments and bills as of the last save; the next start reads only rows added since
+    private static final Path SNAPSHOT_FILE = Path.of("clinic-network.snapshot");
+    private static final Duration SNAPSHOT_INTERVAL = Duration.ofMinutes(10);
+    // How long exit waits for a periodic write that is already running
+    private static final Duration SNAPSHOT_STOP_TIMEOUT = Duration.ofSeconds(30);
+
     private final ClinicNetwork network;
     private final List<Appointment> appointments;
+    private final AppointmentCalendar calendar;
+    private final SlotHolds slotHolds;
+    // Owns the booking locks; every write to the calendar goes through its locks
+    private final BookingDesk bookingDesk;
     private final Map<String, List<Bill>> billsByPatient;
+    private final ScheduledExecutorService snapshotWriter;
     private final static Scanner scanner = new Scanner(System.in);
 
     private final ServiceClinic clinicService;
@@ -22,12 +59,16 @@ public class ClinicService {
     private final ServiceBill billService;
     private final ServiceMedical medicalService;
     private final ServiceLog logService;
+    private final ServiceResource resourceService;
     private final AuditService auditService;
 
     public ClinicService(ClinicNetwork network) {
         this.network = network;
-        this.appointments = new ArrayList<>();
-        this.billsByPatient = new HashMap<>();
+        this.appointments = Collections.synchronizedList(new ArrayList<>());
+        this.calendar = new AppointmentCalendar();
+        this.slotHolds = new SlotHolds(calendar, SLOT_HOLD_TTL);
+        this.bookingDesk = new BookingDesk(calendar, slotHolds, BOOKING_LOCK_STRIPES);
+        this.billsByPatient = new ConcurrentHashMap<>();
 
         this.clinicService = ServiceClinic.getInstance();
         this.patientService = ServicePatient.getInstance();
@@ -36,83 +77,282 @@ public class ClinicService {
         this.billService = ServiceBill.getInstance();
         this.medicalService = ServiceMedical.getInstance();
         this.logService = ServiceLog.getInstance();
+        this.resourceService = ServiceResource.getInstance();
         this.auditService = AuditService.getInstance();
 
+        Patient.setHistoryLoader(logService::findByPatient);
         loadDataFromDatabase();
+
+        this.snapshotWriter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = SNAPSHOT_INTERVAL.toMillis();
+        snapshotWriter.scheduleWithFixedDelay(this::saveSnapshot, period, period, TimeUnit.MILLISECONDS);
     }
 
     private void loadDataFromDatabase() {
-        try {
+        // Loading in one session makes doctors point at the same Clinic instances the network holds
+        try (EntitySession session = EntitySession.open();
+             StartupLoader loader = new StartupLoader(session, STARTUP_LOADER_THREADS)) {
+            // Clinics go first so the other stages find them in the session instead of querying per row;
+            // everything else only reads its own table (appointments and bills carry their joins)
+            CompletableFuture<Void> warm = loader.stage("ids", () -> {
+                // Warm the name -> id cache so later lookups never query
+                IdResolver.getInstance().warm();
+                return null;
+            });
+            CompletableFuture<List<Clinic>> clinics = loader.stage("clinics", clinicService::readAll);
+            CompletableFuture<List<Doctor>> doctors = loader.stage("doctors", doctorService::readAll, clinics);
+            CompletableFuture<Map<Integer, List<Service>>> services = loader.stage("services", () -> {
+                try {
+                    return medicalService.getServicesByClinicId();
+                } catch (SQLException e) {
+                    System.err.println("Error loading clinic services: " + e.getMessage());
+                    return Map.<Integer, List<Service>>of();
+                }
+            }, clinics);
+            NetworkSnapshot snapshot = loader.run("snapshot", () -> NetworkSnapshot.read(SNAPSHOT_FILE));
+            CompletableFuture<List<Appointment>> appointmentRows;
+            CompletableFuture<List<Bill>> bills;
+            CompletableFuture<int[]> rowCounts = null;
+            if (snapshot == null) {
+                appointmentRows = loader.stage("appointments", appointmentService::readAll, clinics);
+                bills = loader.stage("bills", billService::readAll, clinics);
+            } else {
+                // Only rows added since the snapshot; the counts show whether any were deleted meanwhile.
+                // Rows updated in place elsewhere are not detected, see NetworkSnapshot
+                appointmentRows = loader.stage("appointments since snapshot",
+                        () -> appointmentService.readAfter(snapshot.getMaxAppointmentId()), clinics);
+                bills = loader.stage("bills since snapshot", () -> billService.readAfter(snapshot.getMaxBillId()), clinics);
+                rowCounts = loader.stage("row counts", () -> new int[]{appointmentService.count(), billService.count()});
+            }
+            // Databases without the resource tables keep scheduling by doctor alone
+            CompletableFuture<List<Resource>> resources = loader.stage("resources", () -> {
+                try {
+                    return resourceService.readAll();
+                } catch (SQLException e) {
+                    System.err.println("Resources not loaded, scheduling by doctor only: " + e.getMessage());
+                    return List.<Resource>of();
+                }
+            }, clinics);
+            CompletableFuture<Map<Integer, List<String>>> requirements = loader.stage("requirements", () -> {
+                try {
+                    return resourceService.readRequirements();
+                } catch (SQLException e) {
+                    System.err.println("Service requirements not loaded, booking without resource checks: " + e.getMessage());
+                    return Map.<Integer, List<String>>of();
+                }
+            });
+
             // Load clinics into network
-            List<Clinic> dbClinics = clinicService.readAll();
-            for (Clinic clinic : dbClinics) {
+            for (Clinic clinic : loader.join(clinics)) {
                 if (network.findClinicByName(clinic.getName()) == null) {
                     network.addClinic(clinic);
-
                 }
             }
 
-            // Load doctors and associate with clinics
-            List<Doctor> dbDoctors = doctorService.readAll();
-            for (Doctor doctor : dbDoctors) {
+            // Associate doctors with clinics
+            for (Doctor doctor : loader.join(doctors)) {
                 if (doctor.getClinic() != null) {
                     Clinic clinic = network.findClinicByName(doctor.getClinic().getName());
-                    if (clinic != null && !clinic.getDoctors().contains(doctor)) {
+                    if (clinic != null && clinic.findDoctorById(doctor.getPersonalId()) == null) {
                         clinic.addDoctor(doctor);
                     }
                 }
             }
 
-            // Load patients
-            List<Patient> dbPatients = patientService.readAll();
-            for (Patient patient : dbPatients) {
-                // Associate patients with clinics would require additional logic or table
-                // For now, we'll add them to the first clinic as a simplification
-                if (!network.getClinics().isEmpty() && !network.getClinics().get(0).getPatients().contains(patient)) {
-                    network.getClinics().get(0).addPatient(patient);
+            // Patients load on demand instead of all at startup.
+            // Associate patients with clinics would require additional logic or table
+            // For now, the first clinic serves them all as a simplification
+            if (!network.getClinics().isEmpty()) {
+                network.getClinics().get(0).setPatientSource(new Clinic.PatientSource() {
+                    @Override
+                    public List<Patient> loadAll() throws SQLException {
+                        return patientService.readAll();
+                    }
+
+                    @Override
+                    public Patient loadByName(String name) throws SQLException {
+                        return patientService.findByName(name);
+                    }
+                });
+            }
+
+            // Load services for each clinic
+            Map<Integer, List<Service>> servicesByClinic = loader.join(services);
+            for (Clinic clinic : network.getClinics()) {
+                for (Service service : servicesByClinic.getOrDefault(clinic.getId(), List.of())) {
+                    if (clinic.findServiceById(service.getId()) == null) {
+                        clinic.addService(service);
+                    }
+                }
+            }
 
+            attachResources(loader.join(resources), loader.join(requirements));
+
+            List<Appointment> loadedAppointments = loader.join(appointmentRows);
+            List<Bill> loadedBills = loader.join(bills);
+            if (snapshot != null) {
+                int[] counts = loader.join(rowCounts);
+                List<Appointment> restored = null;
+                if (counts[0] == snapshot.getAppointmentCount() + loadedAppointments.size()
+                        && counts[1] == snapshot.getBillCount() + loadedBills.size()) {
+                    try {
+                        // Clinics, doctors and services are in the session by now, so most rows resolve without a query
+                        restored = loader.run("snapshot restore", () -> snapshot.restoreAppointments(session));
+                        List<Bill> restoredBills = snapshot.restoreBills(restored);
+                        restored.addAll(loadedAppointments);
+                        restoredBills.addAll(loadedBills);
+                        loadedBills = restoredBills;
+                    } catch (SQLException | RuntimeException e) {
+                        System.err.println("Snapshot does not match the database: " + e.getMessage());
+                        restored = null;
+                    }
+                }
+                if (restored != null) {
+                    loadedAppointments = restored;
+                } else {
+                    System.out.println("Snapshot is out of date, loading appointments from the database");
+                    loadedAppointments = loader.run("appointments", appointmentService::readAll);
+                    loadedBills = loader.run("bills", billService::readAll);
                 }
             }
 
             // Load existing appointments into memory
-            List<Appointment> dbAppointments = appointmentService.readAll().stream()
-                    .filter(appointment -> !this.appointments.contains(appointment))
+            Set<Appointment> known;
+            synchronized (this.appointments) {
+                known = new HashSet<>(this.appointments);
+            }
+            List<Appointment> dbAppointments = loadedAppointments.stream()
+                    .filter(appointment -> !known.contains(appointment))
                     .sorted(Comparator.comparing(Appointment::getDateTime))
                     .collect(Collectors.toList());
-
-            for (Appointment appointment : dbAppointments) {
-                this.appointments.add(appointment);
-           }
-
+            this.appointments.addAll(dbAppointments);
 
             // Load bills by patient
-            List<Bill> allBills = billService.readAll();
-            for (Bill bill : allBills) {
+            for (Bill bill : loadedBills) {
                 String patientName = bill.getAppointment().getPatient().getName();
-                billsByPatient.computeIfAbsent(patientName, k -> new ArrayList<>()).add(bill);
-
+                billsByPatient.computeIfAbsent(patientName, k -> Collections.synchronizedList(new ArrayList<>())).add(bill);
             }
 
-            // Load services for each clinic
-            for (Clinic clinic : network.getClinics()) {
-                try {
-                    List<Service> clinicServices = medicalService.getServicesByClinic(clinic.getName());
-                    for (Service service : clinicServices) {
-                        if (!clinic.getServices().contains(service)) {
-                            clinic.addService(service);
-                       }
+            loader.run("calendar", () -> {
+                // Resource assignments are not stored, so they are re-derived in time order
+                List<Appointment> inTimeOrder = new ArrayList<>(this.appointments);
+                inTimeOrder.sort(Comparator.comparing(Appointment::getDateTime));
+                for (Appointment appointment : inTimeOrder) {
+                    // Rows whose doctor, clinic or service is gone cannot occupy a calendar slot
+                    if (appointment.getDoctor() == null || appointment.getClinic() == null || appointment.getService() == null) {
+                        System.err.println("Appointment " + appointment.getId() + " refers to a missing doctor, clinic or service; not scheduled");
+                        continue;
                     }
-                } catch (SQLException e) {
-                    System.err.println("Error loading services for clinic: " + clinic.getName());
-                    e.printStackTrace();
+                    Clinic clinic = network.findClinicByName(appointment.getClinic().getName());
+                    if (clinic != null) {
+                        List<List<Resource>> pools = clinic.getResourcePools(appointment.getService());
+                        if (!pools.isEmpty()) {
+                            appointment.setResources(calendar.pickResources(pools, appointment.getDateTime(),
+                                    appointment.getService().getDurationInMinutes()));
+                        }
+                    }
+                    calendar.add(appointment);
                 }
-            }
+                return null;
+            });
+            loader.join(warm);
+            System.out.println(loader.getReport());
 
         } catch (SQLException e) {
             System.err.println("Error loading data from database: " + e.getMessage());
         }
     }
 
+    // Written periodically and on exit; a failed write keeps the previous file. Writers share one
+    // temp file, so only one may run at a time.
+    public synchronized void saveSnapshot() {
+        List<Appointment> appointmentCopy;
+        synchronized (appointments) {
+            appointmentCopy = new ArrayList<>(appointments);
+        }
+        List<Bill> billCopy = new ArrayList<>();
+        for (List<Bill> patientBills : billsByPatient.values()) {
+            synchronized (patientBills) {
+                billCopy.addAll(patientBills);
+            }
+        }
+        long start = System.nanoTime();
+        try {
+            NetworkSnapshot.write(SNAPSHOT_FILE, appointmentCopy, billCopy);
+            auditService.logAction("Saved snapshot of " + appointmentCopy.size() + " appointments in " +
+                    (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (IOException e) {
+            System.err.println("Error saving snapshot: " + e.getMessage());
+        }
+    }
+
+    // Stops the periodic writer, letting a write in progress finish, then saves the final snapshot
+    public void shutdown() {
+        snapshotWriter.shutdown();
+        try {
+            if (!snapshotWriter.awaitTermination(SNAPSHOT_STOP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                System.err.println("Snapshot writer did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        saveSnapshot();
+        slotHolds.shutdown();
+    }
+
+    private void attachResources(List<Resource> resources, Map<Integer, List<String>> requirements) {
+        for (Resource resource : resources) {
+            Clinic clinic = resource.getClinic() == null ? null : network.findClinicByName(resource.getClinic().getName());
+            if (clinic != null) {
+                resource.setClinic(clinic);
+                clinic.addResource(resource);
+            }
+        }
+        for (Clinic clinic : network.getClinics()) {
+            for (Service service : clinic.getServices()) {
+                requirements.getOrDefault(service.getId(), List.of()).forEach(service::addRequiredResourceType);
+            }
+        }
+    }
+
+    public Resource addResourceToClinic(String clinicName, String name, String type) {
+        Clinic clinic = findClinicByName(clinicName);
+        if (clinic == null) {
+            System.out.println("Clinic not found.");
+            return null;
+        }
+        Resource resource = new Resource(name, type.toUpperCase(), clinic);
+        try {
+            resourceService.create(resource);
+            clinic.addResource(resource);
+            auditService.logAction("Added resource: " + resource + " to clinic: " + clinicName);
+            System.out.println("Resource added to " + clinicName);
+        } catch (SQLException e) {
+            System.err.println("Error saving resource to database: " + e.getMessage());
+        }
+        return resource;
+    }
+
+    public void requireResourceForService(String clinicName, String serviceName, String type) {
+        Clinic clinic = findClinicByName(clinicName);
+        Service service = clinic == null ? null : clinic.findServiceByName(serviceName);
+        if (service == null) {
+            System.out.println("Service not found in this clinic.");
+            return;
+        }
+        try {
+            resourceService.addRequirement(service, type);
+            service.addRequiredResourceType(type);
+            System.out.println(service.getName() + " now requires " + type.toUpperCase());
+        } catch (SQLException e) {
+            System.err.println("Error saving resource requirement: " + e.getMessage());
+        }
+    }
+
     public Clinic findClinicByName(String name) {
         return network.findClinicByName(name);
     }
@@ -182,31 +422,48 @@ public class ClinicService {
         System.out.print("Enter duration in minutes: ");
         int duration = Integer.parseInt(scanner.nextLine());
 
+        addServiceToClinic(clinicName, name, price, duration);
+    }
+
+    public Service addServiceToClinic(String clinicName, String name, double price, int duration) {
+        Clinic clinic = findClinicByName(clinicName);
+        if (clinic == null) {
+            System.out.println("Clinic not found.");
+            return null;
+        }
+
         Service newService = new Service(name, price, duration);
-        clinic.addService(newService);
 
-        // Persist to database
+        // Persist to database first, so the clinic indexes the service under its id
         try {
             medicalService.createWithClinic(newService, clinicName);
             auditService.logAction("Added service: " + newService.getName() + " to clinic: " + clinicName);
         } catch (SQLException e) {
             System.err.println("Error saving service to database: " + e.getMessage());
         }
+        clinic.addService(newService);
 
         System.out.println("Service added to clinic " + clinicName);
+        return newService;
     }
 
     public void showAllDoctors() {
         try {
-            List<Doctor> doctors = doctorService.readAll();
-            if (doctors.isEmpty()) {
+            Page<Doctor, Object> page = doctorService.readPage(null, PAGE_SIZE);
+            if (page.getItems().isEmpty()) {
                 System.out.println("No doctors found.");
                 return;
             }
 
             System.out.println("\n--- All Doctors ---");
-            for (Doctor doctor : doctors) {
-                System.out.println(doctor);
+            while (true) {
+                for (Doctor doctor : page.getItems()) {
+                    System.out.println(doctor);
+                }
+                if (!page.hasMore()) {
+                    break;
+                }
+                page = doctorService.readPage(page.getNextKey(), PAGE_SIZE);
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving doctors: " + e.getMessage());
@@ -216,93 +473,378 @@ public class ClinicService {
 
     public void showAllPatients() {
         try {
-            List<Patient> patients = patientService.readAll();
-            if (patients.isEmpty()) {
+            Page<Patient, Object> page = patientService.readPage(null, PAGE_SIZE);
+            if (page.getItems().isEmpty()) {
                 System.out.println("No patients found.");
                 return;
             }
 
             System.out.println("\n--- All Patients ---");
-            for (Patient patient : patients) {
-                System.out.println(patient);
+            while (true) {
+                for (Patient patient : page.getItems()) {
+                    System.out.println(patient);
+                }
+                if (!page.hasMore()) {
+                    break;
+                }
+                page = patientService.readPage(page.getNextKey(), PAGE_SIZE);
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving patients: " + e.getMessage());
         }
     }
+    // Earliest free slots for a service across every clinic in the network, optionally only with one specialization.
+    // Days are searched in order and all qualified doctors are scanned in parallel, so the search
+    // stops on the first day that yields enough offers. Within a day the doctors' slots are merged in
+    // time order: taking a doctor's offer queues that doctor's next free slot after it, so one doctor
+    // can supply several of the earliest offers.
+    public List<SlotOffer> findEarliestSlots(String serviceName, String specialization, LocalDateTime from, int limit) {
+        List<SlotOffer> candidates = findCandidates(serviceName, specialization);
+
+        List<SlotOffer> earliest = new ArrayList<>();
+        for (int day = 0; day < SEARCH_HORIZON_DAYS && earliest.size() < limit && !candidates.isEmpty(); day++) {
+            LocalDateTime dayFrom = day == 0 ? from : from.toLocalDate().plusDays(day).atTime(SlotBitmap.DAY_START);
+            PriorityQueue<SlotOffer> offers = candidates.parallelStream()
+                    .map(c -> {
+                        LocalDateTime slot = nextSlot(c.getClinic(), c.getDoctor(), c.getService(), dayFrom);
+                        return slot == null ? null : new SlotOffer(c.getClinic(), c.getDoctor(), c.getService(), slot);
+                    })
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toCollection(() -> new PriorityQueue<>(Comparator.comparing(SlotOffer::getStart))));
+            while (!offers.isEmpty() && earliest.size() < limit) {
+                SlotOffer offer = offers.poll();
+                earliest.add(offer);
+                LocalDateTime next = nextSlot(offer.getClinic(), offer.getDoctor(), offer.getService(),
+                        offer.getStart().plus(offer.getService().getDurationInMinutes()));
+                if (next != null) {
+                    offers.add(new SlotOffer(offer.getClinic(), offer.getDoctor(), offer.getService(), next));
+                }
+            }
+        }
+        return earliest;
+    }
+
+    // Every doctor who could perform the service, with the clinic's service entry; start times are left empty
+    private List<SlotOffer> findCandidates(String serviceName, String specialization) {
+        List<SlotOffer> candidates = new ArrayList<>();
+        for (Clinic clinic : network.getClinics()) {
+            Service service = clinic.findServiceByName(serviceName);
+            if (service == null) continue;
+            for (Doctor doctor : clinic.getDoctors()) {
+                if (specialization == null || specialization.isBlank() || specialization.equalsIgnoreCase(doctor.getSpecialization())) {
+                    candidates.add(new SlotOffer(clinic, doctor, service, null));
+                }
+            }
+        }
+        return candidates;
+    }
+
+    // Places every request in one pass, reserving slots in the calendar as it goes so later requests
+    // see earlier placements, then stores the appointments and their bills with batched inserts.
+    public RecallReport scheduleRecalls(List<RecallRequest> requests) {
+        RecallReport report = new RecallReport(requests.size());
+        long start = System.currentTimeMillis();
+
+        Map<String, List<SlotOffer>> candidatesByService = new HashMap<>();
+        List<Appointment> planned = new ArrayList<>();
+        for (RecallRequest request : requests) {
+            List<SlotOffer> candidates = candidatesByService.computeIfAbsent(
+                    request.getServiceName().toLowerCase(), k -> findCandidates(request.getServiceName(), null));
+            Appointment appointment = placeRecall(request, candidates);
+            if (appointment != null) {
+                planned.add(appointment);
+            } else {
+                report.getUnplaced().add(request);
+            }
+        }
+        report.setPlanningMillis(System.currentTimeMillis() - start);
+
+        start = System.currentTimeMillis();
+        // Each chunk's appointments and bills commit together, so no appointment is stored without its bill.
+        // A failed chunk is retried one appointment at a time to isolate the rows that cannot be stored.
+        int chunkSize = appointmentService.getBatchSize();
+        for (int from = 0; from < planned.size(); from += chunkSize) {
+            List<Appointment> chunk = planned.subList(from, Math.min(from + chunkSize, planned.size()));
+            try {
+                saveRecalls(chunk);
+            } catch (SQLException e) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    try {
+                        saveRecalls(chunk.subList(i, i + 1));
+                    } catch (SQLException rowError) {
+                        report.getSaveFailures().add(new BatchResult.Failure<>(from + i, chunk.get(i), rowError.getMessage()));
+                    }
+                }
+            }
+        }
+        // Rows without a generated id were not stored, so their reservations are released
+        planned.stream().filter(appointment -> appointment.getId() <= 0).forEach(calendar::remove);
+        planned.removeIf(appointment -> appointment.getId() <= 0);
+        report.getPlaced().addAll(planned);
+        report.setWriteMillis(System.currentTimeMillis() - start);
+
+        auditService.logAction("Recall run: " + report);
+        return report;
+    }
+
+    // Stores the appointments and their bills in one transaction; on failure the unit of work clears their ids
+    private void saveRecalls(List<Appointment> chunk) throws SQLException {
+        List<Appointment> batch = new ArrayList<>(chunk);
+        List<Bill> bills = batch.stream().map(Bill::new).collect(Collectors.toList());
+        UnitOfWork recalls = new UnitOfWork();
+        batch.forEach(appointment -> recalls.registerNew(appointmentService, appointment));
+        bills.forEach(bill -> recalls.registerNew(billService, bill));
+        recalls.afterCommit(() -> {
+            appointments.addAll(batch);
+            for (Bill bill : bills) {
+                billsByPatient.computeIfAbsent(bill.getAppointment().getPatient().getName(),
+                        k -> Collections.synchronizedList(new ArrayList<>())).add(bill);
+            }
+        });
+        recalls.commit();
+    }
+
+    // Earliest slot with any qualified doctor inside the request's window, reserved in the calendar
+    private Appointment placeRecall(RecallRequest request, List<SlotOffer> candidates) {
+        LocalDateTime from = request.getEarliest();
+        for (LocalDate date = from.toLocalDate(); !date.isAfter(request.getLatest().toLocalDate()); date = date.plusDays(1)) {
+            LocalDateTime dayFrom = date.equals(from.toLocalDate()) ? from : date.atTime(SlotBitmap.DAY_START);
+            while (true) {
+                SlotOffer best = null;
+                for (SlotOffer candidate : candidates) {
+                    LocalDateTime slot = nextSlot(candidate.getClinic(), candidate.getDoctor(), candidate.getService(), dayFrom);
+                    if (slot != null && !slot.plus(candidate.getService().getDurationInMinutes()).isAfter(request.getLatest())
+                            && (best == null || slot.isBefore(best.getStart()))) {
+                        best = new SlotOffer(candidate.getClinic(), candidate.getDoctor(), candidate.getService(), slot);
+                    }
+                }
+                if (best == null) break;
+                Appointment appointment = new Appointment(request.getPatient(), best.getDoctor(), best.getClinic(), best.getService(), best.getStart());
+                if (reserve(appointment)) {
+                    return appointment;
+                }
+                // A desk booking took the slot in the meantime; search the day again
+            }
+        }
+        return null;
+    }
+
+    private boolean reserve(Appointment appointment) {
+        Duration duration = appointment.getService().getDurationInMinutes();
+        List<List<Resource>> pools = appointment.getClinic().getResourcePools(appointment.getService());
+        List<ReentrantLock> locks = bookingDesk.lock(appointment.getDoctor(), appointment.getClinic(), pools);
+        try {
+            if (!calendar.isAvailable(appointment.getDoctor(), pools, appointment.getDateTime(), duration)) {
+                return false;
+            }
+            appointment.setResources(calendar.pickResources(pools, appointment.getDateTime(), duration));
+            calendar.add(appointment);
+            return true;
+        } finally {
+            BookingDesk.unlock(locks);
+        }
+    }
+
+    // Earliest start at or after 'from' that day where the doctor and every resource the service needs are free
+    private LocalDateTime nextSlot(Clinic clinic, Doctor doctor, Service service, LocalDateTime from) {
+        return calendar.findNextAvailable(doctor, clinic.getResourcePools(service), from, service.getDurationInMinutes());
+    }
+
+    private LocalDateTime nextSlot(Clinic clinic, Doctor doctor, Service service, LocalDateTime from, int days) {
+        LocalDateTime start = from;
+        for (int i = 0; i < days; i++) {
+            LocalDateTime slot = nextSlot(clinic, doctor, service, start);
+            if (slot != null) {
+                return slot;
+            }
+            start = from.toLocalDate().plusDays(i + 1).atTime(SlotBitmap.DAY_START);
+        }
+        return null;
+    }
+
     public LocalDateTime findNextAvailableSlot(String doctorName, String clinicName, String serviceName, LocalDateTime requestedTime) {
         Clinic clinic = findClinicByName(clinicName);
         if (clinic == null) return null;
 
-        Doctor doctor = clinic.getDoctors().stream()
-                .filter(d -> d.getName().equalsIgnoreCase(doctorName))
-                .findFirst().orElse(null);
+        Doctor doctor = clinic.findDoctorByName(doctorName);
         if (doctor == null) return null;
 
-        Service service = clinic.getServices().stream()
-                .filter(s -> s.getName().equalsIgnoreCase(serviceName))
-                .findFirst().orElse(null);
+        Service service = clinic.findServiceByName(serviceName);
         if (service == null) return null;
 
-        long duration = service.getDurationInMinutes().toMinutes();
+        return nextSlot(clinic, doctor, service, requestedTime);
+    }
+
+    // Served from the calendar's materialized free lists; never touches the appointment list or the database
+    public List<TimeRange> getFreeSlots(String doctorName, String clinicName, LocalDate date) {
+        Doctor doctor = findDoctor(clinicName, doctorName);
+        return doctor == null ? List.of() : calendar.getFreeSlots(doctor, date);
+    }
 
-        List<Appointment> doctorAppointments = appointments.stream()
-                .filter(a -> a.getDoctor().getName().equalsIgnoreCase(doctorName))
-                .filter(a -> a.getDateTime().toLocalDate().equals(requestedTime.toLocalDate()))
-                .sorted(Comparator.comparing(Appointment::getDateTime))
-                .collect(Collectors.toList());
+    public void showFreeSlots(String doctorName, String clinicName, LocalDate from, int days) {
+        Doctor doctor = findDoctor(clinicName, doctorName);
+        if (doctor == null) {
+            System.out.println("Doctor not found in this clinic.");
+            return;
+        }
+        for (int i = 0; i < days; i++) {
+            LocalDate date = from.plusDays(i);
+            System.out.println("\n--- Free slots for " + doctor.getName() + " on " + date + " ---");
+            List<TimeRange> free = calendar.getFreeSlots(doctor, date);
+            if (free.isEmpty()) {
+                System.out.println("Fully booked.");
+            }
+            free.forEach(System.out::println);
+        }
+    }
 
-        LocalDateTime startOfDay = requestedTime.toLocalDate().atTime(8, 0);
-        LocalDateTime endOfDay = requestedTime.toLocalDate().atTime(20, 0);
+    public void cancelAppointment(String doctorName, String clinicName, LocalDateTime dateTime) {
+        Doctor doctor = findDoctor(clinicName, doctorName);
+        if (doctor == null) {
+            System.out.println("Doctor not found in this clinic.");
+            return;
+        }
 
-        LocalDateTime current = requestedTime.isBefore(startOfDay) ? startOfDay : requestedTime.withSecond(0).withNano(0);
+        ReentrantLock lock = bookingDesk.doctorLock(doctor);
+        lock.lock();
+        try {
+            Appointment appointment = calendar.getAppointments(doctor, dateTime.toLocalDate()).stream()
+                    .filter(a -> a.getDateTime().equals(dateTime))
+                    .findFirst().orElse(null);
+            if (appointment == null) {
+                System.out.println("No appointment found at that time.");
+                return;
+            }
 
-        while (!current.plusMinutes(duration).isAfter(endOfDay)) {
-            LocalDateTime slotEnd = current.plusMinutes(duration);
-            LocalDateTime finalCurrent = current;
-            boolean overlaps = doctorAppointments.stream().anyMatch(a -> {
+            // The appointment's bills go with it; the medical log stays in the patient's history
+            List<Bill> patientBills = billsByPatient.getOrDefault(appointment.getPatient().getName(), List.of());
+            List<Bill> appointmentBills;
+            synchronized (patientBills) {
+                appointmentBills = patientBills.stream()
+                        .filter(b -> b.getAppointment().getId() == appointment.getId())
+                        .collect(Collectors.toList());
+            }
 
-                LocalDateTime apptStart = a.getDateTime();
-                LocalDateTime apptEnd = apptStart.plus(a.getService().getDurationInMinutes());
-                return !slotEnd.isBefore(apptStart) && !finalCurrent.isAfter(apptEnd.minusSeconds(1));
+            UnitOfWork cancellation = new UnitOfWork();
+            for (Bill bill : appointmentBills) {
+                cancellation.register(() -> billService.delete(bill.getId()));
+            }
+            cancellation.register(() -> appointmentService.delete(appointment.getId()))
+                    .afterCommit(() -> {
+                        calendar.remove(appointment);
+                        appointments.remove(appointment);
+                        patientBills.removeAll(appointmentBills);
+                    });
+            cancellation.commit();
+            auditService.logAction("Cancelled appointment for patient: " + appointment.getPatient().getName());
+            System.out.println("Appointment cancelled.");
+        } catch (SQLException e) {
+            System.err.println("Error cancelling appointment: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Books every occurrence of the rule with one doctor. The whole series is checked against the
+    // calendar in one pass under the doctor's lock; taken occurrences move to the nearest free slot,
+    // and the series is stored in a single transaction with batched inserts.
+    public List<Appointment> scheduleSeries(String patientName, String doctorName, String clinicName,
+                                            String serviceName, RecurrenceRule rule) {
+        Clinic clinic = findClinicByName(clinicName);
+        Doctor doctor = findDoctor(clinicName, doctorName);
+        if (clinic == null || doctor == null) {
+            System.out.println("Doctor not found in this clinic.");
+            return List.of();
+        }
+        Service service = clinic.findServiceByName(serviceName);
+        if (service == null) {
+            System.out.println("Service not found in this clinic.");
+            return List.of();
+        }
+        Patient patient = findPatient(clinic, patientName);
+        if (patient == null) {
+            System.out.println("Patient not found in this clinic.");
+            return List.of();
+        }
+
+        Duration duration = service.getDurationInMinutes();
+        List<List<Resource>> pools = clinic.getResourcePools(service);
+        List<Appointment> series = new ArrayList<>();
+        boolean committed = false;
+        List<ReentrantLock> locks = bookingDesk.lock(doctor, clinic, pools);
+        try {
+            for (LocalDateTime requested : rule.expand()) {
+                LocalDateTime slot = calendar.findNearestAvailable(doctor, requested, duration);
+                if (slot != null && !calendar.isAvailable(doctor, pools, slot, duration)) {
+                    // The doctor is free but a chair or unit is not; take the next slot where everything is
+                    slot = nextSlot(clinic, doctor, service, requested);
+                }
+                if (slot == null) {
+                    slot = nextSlot(clinic, doctor, service, requested.toLocalDate().plusDays(1).atTime(SlotBitmap.DAY_START),
+                            SERIES_FALLBACK_DAYS);
+                }
+                if (slot == null) {
+                    System.out.println("No free slot near " + requested + "; occurrence skipped.");
+                    continue;
+                }
+                if (!slot.equals(requested)) {
+                    System.out.println("Occurrence " + requested + " moved to " + slot);
+                }
+                Appointment appointment = new Appointment(patient, doctor, clinic, service, slot);
+                appointment.setResources(calendar.pickResources(pools, slot, duration));
+                // Reserved right away so later occurrences of the same series cannot land on it
+                calendar.add(appointment);
+                series.add(appointment);
+            }
+
+            UnitOfWork booking = new UnitOfWork();
+            series.forEach(appointment -> booking.registerNew(appointmentService, appointment));
+            List<Bill> bills = series.stream().map(Bill::new).collect(Collectors.toList());
+            bills.forEach(bill -> booking.registerNew(billService, bill));
+            booking.afterCommit(() -> {
+                appointments.addAll(series);
+                bills.forEach(this::recordBill);
             });
-            if (!overlaps) return current;
-            current = current.plusMinutes(5);
+            booking.commit();
+            committed = true;
+            auditService.logAction("Booked series of " + series.size() + " appointments for patient: " +
+                    patient.getName() + " in " + booking.getElapsedMillis() + " ms");
+            System.out.println("Series scheduled: " + series.size() + " of " + rule.getOccurrences() + " occurrences booked.");
+            return series;
+        } catch (SQLException e) {
+            System.err.println("Error saving appointment series: " + e.getMessage());
+            return List.of();
+        } finally {
+            // Whatever stopped the series, its reservations must not outlive it
+            if (!committed) {
+                series.forEach(calendar::remove);
+            }
+            BookingDesk.unlock(locks);
         }
-        return null; // No slot available that day
     }
 
+    private Doctor findDoctor(String clinicName, String doctorName) {
+        Clinic clinic = findClinicByName(clinicName);
+        if (clinic == null) return null;
+        return clinic.findDoctorByName(doctorName);
+    }
+
+    // Console front end for book(): prompts for new patient details and for accepting another slot
     public void scheduleAppointmentByNames(String patientName, String doctorName, String clinicName, String serviceName, LocalDateTime dateTime) {
         Clinic clinic = findClinicByName(clinicName);
         if (clinic == null) {
             System.out.println("Clinic not found.");
             return;
         }
-
-        // Find Doctor by name
-        Doctor doctor = null;
-        for (Doctor d : clinic.getDoctors()) {
-            if (d.getName().equalsIgnoreCase(doctorName)) {
-                doctor = d;
-                break;
-            }
-        }
-        if (doctor == null) {
+        if (findDoctor(clinicName, doctorName) == null) {
             System.out.println("Doctor not found in this clinic.");
             return;
         }
 
-        // Find patient by name
-        Patient patient = null;
-        for (Patient p : clinic.getPatients()) {
-            if (p.getName().equalsIgnoreCase(patientName)) {
-                patient = p;
-                break;
-            }
-        }
+        BookingRequest request = new BookingRequest(patientName, doctorName, clinicName, serviceName, dateTime);
 
         // Create new patient if not found
-        if (patient == null) {
+        if (findPatient(clinic, patientName) == null) {
             System.out.println("Patient not found. Creating new patient:");
             System.out.print("Personal ID: ");
             String personalId = scanner.nextLine();
@@ -313,78 +855,136 @@ public class ClinicService {
             System.out.print("Insurance Provider: ");
             String insurance = scanner.nextLine();
 
-            patient = new Patient(patientName, personalId, email, phone, insurance);
-            addPatientToClinic(patient, clinicName);
-        }
-
-        // Find service by name
-        Service service = null;
-        for (Service s : clinic.getServices()) {
-            if (s.getName().equalsIgnoreCase(serviceName)) {
-                service = s;
-                break;
-            }
-        }
-        if (service == null) {
-            System.out.println("Service not found in this clinic.");
-            return;
+            request.setNewPatient(new Patient(patientName, personalId, email, phone, insurance));
         }
 
-
-        LocalDateTime availableSlot = findNextAvailableSlot(doctorName, clinicName, serviceName, dateTime);
-        if (availableSlot == null) {
-            System.out.println("No available slots for the requested service at this time.");
-            return;
-        }
-        if(!availableSlot.isEqual(dateTime))
-        {
-            System.out.println("Requested time is not available. Next available slot is: " + availableSlot);
+        // The proposed slot is held while the receptionist answers, so nobody else can take it
+        request.setHoldAlternative(true);
+        BookingResult result = book(request);
+        // A confirmed slot is booked exactly; if it was lost meanwhile, the next one is proposed again
+        while (result.getStatus() == BookingResult.Status.ALTERNATIVE_PROPOSED) {
+            System.out.println("Requested time is not available. Next available slot is: " + result.getProposedSlot());
+            System.out.println("The slot is held for " + slotHolds.getTtl().toMinutes() + " minutes.");
             System.out.println("Do you want to proceed with this slot? (yes/no)");
             String response = scanner.nextLine().trim().toLowerCase();
             if (!response.equals("yes")) {
+                releaseHold(result.getHold());
                 System.out.println("Appointment not scheduled.");
                 return;
             }
-            else {
-                System.out.println("Proceeding with the next available slot: " + availableSlot);
-            }
+            System.out.println("Proceeding with the next available slot: " + result.getProposedSlot());
+            request.setRequestedTime(result.getProposedSlot());
+            request.setHold(result.getHold());
+            result = book(request);
         }
 
-        Appointment appointment = new Appointment(patient, doctor, clinic, service, availableSlot);
+        if (result.isBooked()) {
+            printBill(result.getBill());
+            System.out.println("Appointment scheduled successfully");
+        } else {
+            System.out.println("Appointment not scheduled: " + result.getReason());
+        }
+    }
 
-        try {
-            appointmentService.create(appointment);
-            appointments.add(appointment);
+    // Books one appointment without any console interaction, so it can be driven from many threads.
+    // The slot is re-checked and stored under the doctor's lock; the appointment, medical log,
+    // patient link, bill and (if needed) the new patient go out in one transaction.
+    public BookingResult book(BookingRequest request) {
+        long start = System.currentTimeMillis();
+        BookingResult result = bookOnce(request);
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
 
-            // Create medical log
-            Log log = new Log(clinic.getName(), service.getName(), doctor, dateTime.toLocalDate());
-            patient.getMedicalHistory().add(log);
-            logService.create(log);
-            logService.addPatientToLog(log, patient);
+    // Drops a hold returned with an ALTERNATIVE_PROPOSED result that the caller will not book
+    public boolean releaseHold(SlotHold hold) {
+        return bookingDesk.releaseHold(hold);
+    }
 
-            // Create bill
-            createBillForAppointment(appointment);
+    public CompletableFuture<BookingResult> bookAsync(BookingRequest request, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> book(request), executor);
+    }
 
-            System.out.println("Appointment scheduled successfully");
+    private BookingResult bookOnce(BookingRequest request) {
+        Clinic clinic = findClinicByName(request.getClinicName());
+        if (clinic == null) {
+            return BookingResult.rejected("Clinic not found");
+        }
+        Doctor doctor = findDoctor(request.getClinicName(), request.getDoctorName());
+        if (doctor == null) {
+            return BookingResult.rejected("Doctor not found in this clinic");
+        }
+        Service service = clinic.findServiceByName(request.getServiceName());
+        if (service == null) {
+            return BookingResult.rejected("Service not found in this clinic");
+        }
+        Patient existing = findPatient(clinic, request.getPatientName());
+        Patient newPatient = existing == null ? request.getNewPatient() : null;
+        if (existing == null && newPatient == null) {
+            return BookingResult.rejected("Patient not found in this clinic");
+        }
+        Patient patient = existing != null ? existing : newPatient;
+
+        // Everything but the locking and the calendar: the patient, appointment, medical log, patient
+        // link and bill go out in one transaction, and a failure leaves no partial booking behind
+        BookingDesk.Commit store = appointment -> {
+            Log log = new Log(clinic.getName(), service.getName(), doctor, appointment.getDateTime().toLocalDate());
+            Bill bill = new Bill(appointment);
+            UnitOfWork booking = new UnitOfWork();
+            if (newPatient != null) {
+                booking.registerNew(patientService, newPatient)
+                        .afterCommit(() -> {
+                            clinic.addPatient(newPatient);
+                            auditService.logAction("Added patient: " + newPatient.getName() + " to clinic: " + clinic.getName());
+                        });
+            }
+            booking.registerNew(appointmentService, appointment)
+                    .registerNew(logService, log)
+                    .register(() -> logService.addPatientToLog(log, patient))
+                    .registerNew(billService, bill)
+                    .afterCommit(() -> {
+                        appointments.add(appointment);
+                        patient.addMedicalHistory(log);
+                        recordBill(bill);
+                    });
+            booking.commit();
+            auditService.logAction("Booked appointment for patient: " + patient.getName() +
+                    " in " + booking.getElapsedMillis() + " ms");
+            return bill;
+        };
+        try {
+            return bookingDesk.book(patient, doctor, clinic, service, request, store);
         } catch (SQLException e) {
             System.err.println("Error saving appointment to database: " + e.getMessage());
-            e.printStackTrace();
+            return BookingResult.rejected("Database error: " + e.getMessage());
         }
     }
 
+    private Patient findPatient(Clinic clinic, String patientName) {
+        return clinic.findPatientByName(patientName);
+    }
+
     public void createBillForAppointment(Appointment appointment) {
         Bill bill = new Bill(appointment);
-        String patientName = appointment.getPatient().getName();
-        billsByPatient.computeIfAbsent(patientName, k -> new ArrayList<>()).add(bill);
 
         // Persist bill to database
         try {
             billService.create(bill);
-            auditService.logAction("Created bill for patient: " + patientName);
         } catch (SQLException e) {
             System.err.println("Error saving bill to database: " + e.getMessage());
         }
 
+        recordBill(bill);
+        printBill(bill);
+    }
+
+    private void recordBill(Bill bill) {
+        String patientName = bill.getAppointment().getPatient().getName();
+        billsByPatient.computeIfAbsent(patientName, k -> Collections.synchronizedList(new ArrayList<>())).add(bill);
+        auditService.logAction("Created bill for patient: " + patientName);
+    }
+
+    private void printBill(Bill bill) {
         System.out.println("=== BILL CREATED ===");
         System.out.println(bill);
         System.out.println("===================");
@@ -426,27 +1026,24 @@ public class ClinicService {
     }
 
     public void showAppointmentsByClinic(String clinicName) {
-        try {
-            // Get all appointments and filter by clinic
-            List<Appointment> allAppointments = appointmentService.readAll();
-            List<Appointment> clinicAppointments = allAppointments.stream()
-                    .filter(a -> a.getClinic().getName().equalsIgnoreCase(clinicName))
-                    .sorted(Comparator.comparing(Appointment::getDateTime))
-                    .collect(Collectors.toList());
+        // Stream the clinic's appointments (already filtered and sorted by the database)
+        try (Stream<Appointment> clinicAppointments = appointmentService.streamByClinic(clinicName)) {
+            Iterator<Appointment> it = clinicAppointments.iterator();
 
             System.out.println("\n--- Appointments for " + clinicName + " ---");
-            if (clinicAppointments.isEmpty()) {
+            if (!it.hasNext()) {
                 System.out.println("No appointments found for this clinic.");
                 return;
             }
 
-            for (Appointment appointment : clinicAppointments) {
+            while (it.hasNext()) {
+                Appointment appointment = it.next();
                 System.out.println(appointment.getDateTime() + " - " +
                         "Patient: " + appointment.getPatient().getName() + " - " +
                         "Doctor: " + appointment.getDoctor().getName() + " - " +
                         "Service: " + appointment.getService().getName());
             }
-        } catch (SQLException e) {
+        } catch (SQLException | DatabaseCRUD.UncheckedSQLException e) {
             System.err.println("Error retrieving appointments by clinic: " + e.getMessage());
 
         }
@@ -490,17 +1087,28 @@ public class ClinicService {
 
     public void showMedicalHistory(String patientName) {
         try {
-            List<Patient> patients = patientService.readAll();
+            // The clinic's copy keeps its history loaded while it stays in use
             Patient foundPatient = null;
-            for (Patient p : patients) {
-                if (p.getName().equalsIgnoreCase(patientName)) {
-                    foundPatient = p;
+            for (Clinic clinic : network.getClinics()) {
+                foundPatient = clinic.findPatientByName(patientName);
+                if (foundPatient != null) {
                     break;
                 }
             }
+            if (foundPatient == null) {
+                for (Patient p : patientService.readAll()) {
+                    if (p.getName().equalsIgnoreCase(patientName)) {
+                        foundPatient = p;
+                        break;
+                    }
+                }
+            }
 
             if (foundPatient != null) {
-                List<Log> medicalHistory = logService.findByPatient(foundPatient);
+                List<Log> medicalHistory;
+                synchronized (foundPatient.getMedicalHistory()) {
+                    medicalHistory = new ArrayList<>(foundPatient.getMedicalHistory());
+                }
                 System.out.println("\n--- Medical History for " + patientName + " ---");
                 if (medicalHistory.isEmpty()) {
                     System.out.println("No medical history found.");
@@ -608,23 +1216,20 @@ public class ClinicService {
             return;
         }
 
-        try {
-            // Get all appointments for this clinic in the date range
-            List<Appointment> reportAppointments = appointmentService.readAll().stream()
-                    .filter(a -> a.getClinic().getName().equalsIgnoreCase(clinicName))
-                    .filter(a -> {
-                        LocalDate appDate = a.getDateTime().toLocalDate();
-                        return (appDate.isEqual(startDate) || appDate.isAfter(startDate)) &&
-                                (appDate.isEqual(endDate) || appDate.isBefore(endDate));
-                    })
-                    .collect(Collectors.toList());
-
+        // Stream the clinic's appointments in the date range; only the aggregates stay in memory
+        try (Stream<Appointment> reportAppointments = appointmentService.streamByClinic(clinicName, startDate, endDate)) {
             // Calculate statistics
+            int totalAppointments = 0;
             double totalRevenue = 0;
             Map<String, Integer> serviceCount = new HashMap<>();
             Map<String, Integer> doctorAppointments = new HashMap<>();
+            Map<String, Double> doctorRevenue = new HashMap<>();
+
+            Iterator<Appointment> it = reportAppointments.iterator();
+            while (it.hasNext()) {
+                Appointment appointment = it.next();
+                totalAppointments++;
 
-            for (Appointment appointment : reportAppointments) {
                 // Add to revenue
                 totalRevenue += appointment.getService().getPrice();
 
@@ -632,15 +1237,16 @@ public class ClinicService {
                 String serviceName = appointment.getService().getName();
                 serviceCount.put(serviceName, serviceCount.getOrDefault(serviceName, 0) + 1);
 
-                // Count doctor appointments
+                // Count doctor appointments and revenue
                 String doctorName = appointment.getDoctor().getName();
                 doctorAppointments.put(doctorName, doctorAppointments.getOrDefault(doctorName, 0) + 1);
+                doctorRevenue.put(doctorName, doctorRevenue.getOrDefault(doctorName, 0.0) + appointment.getService().getPrice());
             }
 
             // Print report
             System.out.println("\n=== CLINIC REPORT: " + clinicName + " ===");
             System.out.println("Period: " + startDate + " to " + endDate);
-            System.out.println("Total appointments: " + reportAppointments.size());
+            System.out.println("Total appointments: " + totalAppointments);
             System.out.println("Total revenue: $" + totalRevenue);
 
             System.out.println("\n-- Services Breakdown --");
@@ -653,14 +1259,6 @@ public class ClinicService {
                 System.out.println(entry.getKey() + ": " + entry.getValue());
             }
 
-            // Calculate total revenue per doctor
-            Map<String, Double> doctorRevenue = new HashMap<>();
-            for (Appointment appointment : reportAppointments) {
-                String doctorName = appointment.getDoctor().getName();
-                double price = appointment.getService().getPrice();
-                doctorRevenue.put(doctorName, doctorRevenue.getOrDefault(doctorName, 0.0) + price);
-            }
-
             // Find the doctor with the highest revenue
             Map.Entry<String, Double> mostProfitableEntry = doctorRevenue.entrySet().stream()
                     .max(Map.Entry.comparingByValue())
@@ -676,7 +1274,7 @@ public class ClinicService {
 
 
             auditService.logAction("Generated report for clinic: " + clinicName);
-        } catch (SQLException e) {
+        } catch (SQLException | DatabaseCRUD.UncheckedSQLException e) {
             System.err.println("Error generating clinic report: " + e.getMessage());
         }
     }
@@ -693,6 +1291,11 @@ public class ClinicService {
     public void deleteService(String clinicName, String serviceName) {
         try {
             medicalService.deleteServiceForClinic(serviceName, clinicName);
+            Clinic clinic = findClinicByName(clinicName);
+            Service service = clinic == null ? null : clinic.findServiceByName(serviceName);
+            if (service != null) {
+                clinic.removeService(service);
+            }
             auditService.logAction("Deleted service: " + serviceName + " from clinic: " + clinicName);
         } catch (SQLException e) {
             System.err.println("Error deleting service: " + e.getMessage());
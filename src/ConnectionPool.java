@@ -0,0 +1,486 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ConnectionPool {
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long validationIntervalMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int statementCacheSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> inUse = ConcurrentHashMap.newKeySet();
+    private int totalCount;
+    private boolean closed;
+
+    // A thread that already holds a connection gets the same one back, so nested DAO calls
+    // (e.g. ServiceAppointment -> ServicePatient) never need a second connection
+    private final ThreadLocal<PooledConnection> threadBound = new ThreadLocal<>();
+
+    // Statistics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+
+    private final ScheduledExecutorService housekeeper;
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long borrowTimeoutMillis, long validationIntervalMillis,
+                          long idleTimeoutMillis, long leakThresholdMillis, int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.statementCacheSize = statementCacheSize;
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(validationIntervalMillis, 30_000));
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // Opens connections until the pool holds at least minSize of them
+    public void fillToMinimum() throws SQLException {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || totalCount >= minSize) {
+                    return;
+                }
+                totalCount++;
+            } finally {
+                lock.unlock();
+            }
+            PooledConnection pooled;
+            try {
+                pooled = openPhysical();
+            } catch (SQLException e) {
+                discardSlot();
+                throw e;
+            }
+            lock.lock();
+            try {
+                idle.addLast(pooled);
+                released.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Checkout. The returned connection goes back to the pool when closed.
+    public Connection borrow() throws SQLException {
+        PooledConnection bound = threadBound.get();
+        if (bound != null) {
+            bound.depth++;
+            return bound.newLease();
+        }
+        PooledConnection pooled = checkout();
+        pooled.depth = 1;
+        threadBound.set(pooled);
+        return pooled.newLease();
+    }
+
+    // Checkout that is not shared with the calling thread, e.g. for a streaming result set
+    // that stays open while the thread keeps running other queries on its own connection
+    public Connection borrowDedicated() throws SQLException {
+        PooledConnection pooled = checkout();
+        pooled.depth = 1;
+        return pooled.newLease();
+    }
+
+    private PooledConnection checkout() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean mayCreate = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("Connection pool is closed.");
+                    }
+                    candidate = idle.pollFirst();
+                    if (candidate != null) {
+                        break;
+                    }
+                    if (totalCount < maxSize) {
+                        totalCount++;
+                        mayCreate = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new SQLException("Timed out after " + borrowTimeoutMillis +
+                                " ms waiting for a database connection (" + inUse.size() + " in use).");
+                    }
+                    try {
+                        released.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection.", e);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (mayCreate) {
+                try {
+                    candidate = openPhysical();
+                } catch (SQLException e) {
+                    discardSlot();
+                    throw e;
+                }
+            } else if (!isUsable(candidate)) {
+                validationFailures.incrementAndGet();
+                closePhysical(candidate);
+                discardSlot();
+                continue;
+            }
+
+            long waited = System.nanoTime() - start;
+            borrowCount.incrementAndGet();
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+            candidate.borrowedAt = System.currentTimeMillis();
+            candidate.borrower = Thread.currentThread().getName();
+            candidate.borrowSite = leakThresholdMillis > 0 ? new Exception("Connection borrowed here") : null;
+            candidate.leakReported = false;
+            inUse.add(candidate);
+            return candidate;
+        }
+    }
+
+    // Idle validation: connections that sat unused longer than the interval are pinged first
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            if (System.currentTimeMillis() - pooled.lastUsedAt < validationIntervalMillis) {
+                return true;
+            }
+            return pooled.physical.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        if (threadBound.get() == pooled) {
+            threadBound.remove();
+        }
+        inUse.remove(pooled);
+
+        boolean healthy = true;
+        try {
+            if (pooled.physical.isClosed()) {
+                healthy = false;
+            } else if (!pooled.physical.getAutoCommit()) {
+                // Never hand an open transaction to the next borrower
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            healthy = false;
+        }
+
+        pooled.lastUsedAt = System.currentTimeMillis();
+        pooled.borrowSite = null;
+        pooled.borrower = null;
+
+        lock.lock();
+        try {
+            if (healthy && !closed) {
+                idle.addFirst(pooled);
+                released.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        closePhysical(pooled);
+        discardSlot();
+    }
+
+    private void discardSlot() {
+        lock.lock();
+        try {
+            totalCount--;
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PooledConnection openPhysical() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        createdCount.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void closePhysical(PooledConnection pooled) {
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // Already broken, nothing left to release
+        }
+    }
+
+    private void housekeep() {
+        try {
+            detectLeaks();
+            evictIdle();
+            fillToMinimum();
+        } catch (SQLException e) {
+            System.err.println("Connection pool could not reach minimum size: " + e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void detectLeaks() {
+        if (leakThresholdMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : inUse) {
+            if (!pooled.leakReported && now - pooled.borrowedAt > leakThresholdMillis) {
+                pooled.leakReported = true;
+                leaksDetected.incrementAndGet();
+                System.err.println("Possible connection leak: connection held by thread '" + pooled.borrower +
+                        "' for " + (now - pooled.borrowedAt) + " ms.");
+                if (pooled.borrowSite != null) {
+                    pooled.borrowSite.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void evictIdle() {
+        List<PooledConnection> evicted = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && totalCount - evicted.size() > minSize) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastUsedAt > idleTimeoutMillis) {
+                    it.remove();
+                    evicted.add(pooled);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection pooled : evicted) {
+            closePhysical(pooled);
+            discardSlot();
+        }
+    }
+
+    public void shutdown() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            totalCount -= idle.size();
+            idle.clear();
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        for (PooledConnection pooled : toClose) {
+            closePhysical(pooled);
+        }
+    }
+
+    // Stats
+    public int getInUseCount() {
+        return inUse.size();
+    }
+
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getTotalCount() {
+        lock.lock();
+        try {
+            return totalCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.get();
+        return borrows == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / borrows;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public long getValidationFailures() {
+        return validationFailures.get();
+    }
+
+    public long getLeaksDetected() {
+        return leaksDetected.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Connection pool [min=%d, max=%d] total=%d, inUse=%d, idle=%d, borrows=%d, " +
+                        "avgWait=%.3f ms, maxWait=%.3f ms, created=%d, validationFailures=%d, leaks=%d",
+                minSize, maxSize, getTotalCount(), getInUseCount(), getIdleCount(), getBorrowCount(),
+                getAverageWaitMillis(), getMaxWaitMillis(), getCreatedCount(), getValidationFailures(),
+                getLeaksDetected());
+    }
+
+    private class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statements = new StatementCache(statementCacheSize);
+        private long lastUsedAt = System.currentTimeMillis();
+        private long borrowedAt;
+        private String borrower;
+        private Exception borrowSite;
+        private volatile boolean leakReported;
+        private int depth;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        private Connection newLease() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Lease(this));
+        }
+    }
+
+    // Handle given to callers; close() returns the connection instead of closing the socket
+    private class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean closed;
+
+        private Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!closed) {
+                        closed = true;
+                        if (--pooled.depth == 0) {
+                            release(pooled);
+                        }
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed || pooled.physical.isClosed();
+                }
+                case "prepareStatement" -> {
+                    if (closed) {
+                        throw new SQLException("Connection has already been returned to the pool.");
+                    }
+                    if (args.length == 1) {
+                        return pooled.statements.prepare(pooled.physical, (String) args[0], Statement.NO_GENERATED_KEYS);
+                    }
+                    if (args.length == 2 && args[1] instanceof Integer autoGeneratedKeys) {
+                        return pooled.statements.prepare(pooled.physical, (String) args[0], autoGeneratedKeys);
+                    }
+                    return invokePhysical(method, args);
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled" + pooled.physical;
+                }
+                default -> {
+                    if (closed) {
+                        throw new SQLException("Connection has already been returned to the pool.");
+                    }
+                    return invokePhysical(method, args);
+                }
+            }
+        }
+
+        private Object invokePhysical(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
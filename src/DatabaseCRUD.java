@@ -1,11 +1,25 @@
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class DatabaseCRUD<T> {
-    protected Connection connection;
-    protected DatabaseCRUD() {
-        this.connection = DatabaseConnection.getConnection();
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int STREAM_SESSION_ENTITIES = 1_000;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    protected DatabaseCRUD() {}
+
+    // Each operation borrows its own pooled connection
+    protected Connection getConnection() throws SQLException {
+        return DatabaseConnection.getConnection();
     }
 
     // Metode abstracte
@@ -16,54 +30,408 @@ public abstract class DatabaseCRUD<T> {
 
     // CREATE
     public void create(T entity) throws SQLException {
-        String sql = "INSERT INTO " + getTableName() + " VALUES (" + getInsertPlaceholders() + ")";
-        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        String sql = getInsertSql();
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             setInsertParameters(stmt, entity);
             stmt.executeUpdate();
+            onCreated(entity, readKeys(stmt, 1)[0]);
         }
     }
 
     // READ (by ID)
     public T read(int id) throws SQLException {
-        String sql = "SELECT * FROM " + getTableName() + " WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        String sql = getSelectSql() + " WHERE " + getIdColumn() + " = ?";
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
-            return rs.next() ? mapResultSetToEntity(rs) : null;
+            return rs.next() ? newRowMapper().map(rs) : null;
         }
     }
 
     // UPDATE
     public void update(T entity) throws SQLException {
-        String sql = "UPDATE " + getTableName() + " SET " + getUpdateFields() + " WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        String sql = getUpdateSql();
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             setUpdateParameters(stmt, entity);
             stmt.executeUpdate();
         }
+        onUpdated(entity);
     }
 
     // DELETE
     public void delete(int id) throws SQLException {
-        String sql = "DELETE FROM " + getTableName() + " WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        String sql = getDeleteSql();
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
         }
+        onDeleted(id);
     }
 
     // READ ALL
     public List<T> readAll() throws SQLException {
         List<T> entities = new ArrayList<>();
-        String sql = "SELECT * FROM " + getTableName();
-        try (Statement stmt = connection.createStatement();
+        String sql = getSelectSql();
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
+            RowMapper<T> mapper = newRowMapper();
             while (rs.next()) {
-                entities.add(mapResultSetToEntity(rs));
+                entities.add(mapper.map(rs));
             }
         }
         return entities;
     }
 
+    // Rows added after the given id, for catching up from a snapshot
+    public List<T> readAfter(int id) throws SQLException {
+        return query(getSelectSql() + " WHERE " + getIdColumn() + " > ? ORDER BY " + getIdColumn(), id);
+    }
+
+    public int count() throws SQLException {
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + getTableName())) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // Runs a parameterized query and maps every row with one mapper, so joined rows share their related objects
+    protected List<T> query(String sql, Object... params) throws SQLException {
+        List<T> entities = new ArrayList<>();
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            ResultSet rs = stmt.executeQuery();
+            RowMapper<T> mapper = newRowMapper();
+            while (rs.next()) {
+                entities.add(mapper.map(rs));
+            }
+        }
+        return entities;
+    }
+
+    // READ PAGE
+    // Keyset pagination on the primary key: each page seeks past the last key of the previous one,
+    // so page 10,000 costs the same as page 1. Pass null to start from the beginning.
+    public Page<T, Object> readPage(Object afterKey, int limit) throws SQLException {
+        String sql = getSelectSql() +
+                (afterKey == null ? "" : " WHERE " + getKeyColumn() + " > ?") +
+                " ORDER BY " + getKeyColumn() + " LIMIT ?";
+        Object[] params = afterKey == null ? new Object[0] : new Object[]{afterKey};
+        return queryPage(sql, limit, rs -> rs.getObject(getKeyLabel()), params);
+    }
+
+    // Runs a query whose last parameter is the LIMIT; one extra row is fetched to learn whether more pages exist
+    protected <K> Page<T, K> queryPage(String sql, int limit, RowMapper<K> keyReader, Object... params) throws SQLException {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        List<T> items = new ArrayList<>();
+        K lastKey = null;
+        boolean hasMore = false;
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            stmt.setInt(params.length + 1, limit + 1);
+            ResultSet rs = stmt.executeQuery();
+            RowMapper<T> mapper = newRowMapper();
+            while (rs.next()) {
+                if (items.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                lastKey = keyReader.map(rs);
+                items.add(mapper.map(rs));
+            }
+        }
+        return new Page<>(items, lastKey, hasMore);
+    }
+
+    // STREAM
+    // Rows are fetched one at a time from a forward-only cursor on a dedicated connection.
+    // The stream must be closed (try-with-resources) to release the cursor and the connection.
+    public Stream<T> stream() throws SQLException {
+        return stream(getSelectSql());
+    }
+
+    public void forEach(Consumer<? super T> action) throws SQLException {
+        forEach(stream(), action);
+    }
+
+    protected Stream<T> stream(String sql, Object... params) throws SQLException {
+        Connection connection = DatabaseConnection.getDedicatedConnection();
+        PreparedStatement stmt = null;
+        ResultSet rs;
+        try {
+            stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(Integer.MIN_VALUE); // MySQL streams rows instead of buffering the result
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            closeQuietly(stmt);
+            closeQuietly(connection);
+            throw e;
+        }
+
+        ResultSet results = rs;
+        PreparedStatement statement = stmt;
+        // Rows are mapped in a small session of their own rather than the caller's, which would keep
+        // every patient, doctor and service the stream passes
+        EntitySession rowSession = EntitySession.bounded(STREAM_SESSION_ENTITIES);
+        RowMapper<T> mapper = mapInSession(rowSession, this::newRowMapper);
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                T row;
+                try {
+                    if (!results.next()) {
+                        return false;
+                    }
+                    row = mapInSession(rowSession, () -> mapper.map(results));
+                } catch (SQLException e) {
+                    throw new UncheckedSQLException(e);
+                }
+                action.accept(row);
+                return true;
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            closeQuietly(results);
+            closeQuietly(statement);
+            closeQuietly(connection);
+        });
+    }
+
+    private interface SessionWork<R> {
+        R run() throws SQLException;
+    }
+
+    private static <R> R mapInSession(EntitySession session, SessionWork<R> work) throws SQLException {
+        EntitySession.Binding binding = session.bind();
+        try {
+            return work.run();
+        } finally {
+            binding.close();
+        }
+    }
+
+    protected void forEach(Stream<T> rows, Consumer<? super T> action) throws SQLException {
+        try (rows) {
+            rows.forEach(action);
+        } catch (UncheckedSQLException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable resource) {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (Exception e) {
+            System.err.println("Error releasing database resource: " + e.getMessage());
+        }
+    }
+
+    // Carries a SQLException out of a stream pipeline
+    public static class UncheckedSQLException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public UncheckedSQLException(SQLException cause) {
+            super(cause.getMessage(), cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+
+    // BATCH CREATE / UPDATE / DELETE
+    public BatchResult<T> createAll(Collection<T> entities) throws SQLException {
+        return executeBatch(getInsertSql(), new ArrayList<>(entities), this::setInsertParameters, true, this::onCreated);
+    }
+
+    public BatchResult<T> updateAll(Collection<T> entities) throws SQLException {
+        return executeBatch(getUpdateSql(), new ArrayList<>(entities), this::setUpdateParameters, false,
+                (entity, key) -> onUpdated(entity));
+    }
+
+    public BatchResult<Integer> deleteAll(Collection<Integer> ids) throws SQLException {
+        return executeBatch(getDeleteSql(), new ArrayList<>(ids), (stmt, id) -> stmt.setInt(1, id), false,
+                (id, key) -> onDeleted(id));
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    // Sends the rows in chunks of batchSize, one transaction per chunk. If a chunk fails it is
+    // rolled back and replayed row by row, so only the offending rows are reported and skipped.
+    // When the caller already has a transaction open, that transaction is left to the caller.
+    // onSuccess runs for every stored row, with its generated key when returnKeys is set (-1 otherwise).
+    private <E> BatchResult<E> executeBatch(String sql, List<E> items, ParameterBinder<E> binder,
+                                            boolean returnKeys, RowCallback<E> onSuccess) throws SQLException {
+        BatchResult<E> result = new BatchResult<>();
+        long start = System.currentTimeMillis();
+        int keyMode = returnKeys ? Statement.RETURN_GENERATED_KEYS : Statement.NO_GENERATED_KEYS;
+
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql, keyMode)) {
+            boolean ownsTransaction = connection.getAutoCommit();
+
+            for (int from = 0; from < items.size(); from += batchSize) {
+                List<E> chunk = items.subList(from, Math.min(from + batchSize, items.size()));
+                if (ownsTransaction) {
+                    connection.setAutoCommit(false);
+                }
+                try {
+                    for (E item : chunk) {
+                        binder.bind(stmt, item);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    int[] keys = returnKeys ? readKeys(stmt, chunk.size()) : null;
+                    if (ownsTransaction) {
+                        connection.commit();
+                    }
+                    for (int i = 0; i < chunk.size(); i++) {
+                        onSuccess.accept(chunk.get(i), keys != null ? keys[i] : -1);
+                    }
+                    result.addSucceeded(chunk.size());
+                } catch (SQLException e) {
+                    stmt.clearBatch();
+                    if (!ownsTransaction) {
+                        throw e;
+                    }
+                    connection.rollback();
+                    replayRowByRow(connection, stmt, chunk, from, binder, returnKeys, onSuccess, result);
+                } finally {
+                    if (ownsTransaction) {
+                        connection.setAutoCommit(true);
+                    }
+                }
+            }
+        }
+
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private <E> void replayRowByRow(Connection connection, PreparedStatement stmt, List<E> chunk, int offset,
+                                    ParameterBinder<E> binder, boolean returnKeys, RowCallback<E> onSuccess,
+                                    BatchResult<E> result) throws SQLException {
+        List<E> stored = new ArrayList<>();
+        List<Integer> storedKeys = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            E item = chunk.get(i);
+            try {
+                binder.bind(stmt, item);
+                stmt.executeUpdate();
+                stored.add(item);
+                storedKeys.add(returnKeys ? readKeys(stmt, 1)[0] : -1);
+            } catch (SQLException e) {
+                result.addFailure(offset + i, item, e.getMessage());
+            }
+        }
+        connection.commit();
+        for (int i = 0; i < stored.size(); i++) {
+            onSuccess.accept(stored.get(i), storedKeys.get(i));
+        }
+        result.addSucceeded(stored.size());
+    }
+
+    private static int[] readKeys(Statement stmt, int count) throws SQLException {
+        int[] keys = new int[count];
+        Arrays.fill(keys, -1);
+        try (ResultSet rs = stmt.getGeneratedKeys()) {
+            for (int i = 0; i < count && rs.next(); i++) {
+                keys[i] = rs.getInt(1);
+            }
+        }
+        return keys;
+    }
+
+    // Called after a row is stored; DAOs override these to keep caches such as IdResolver current
+    protected void onCreated(T entity, int generatedId) throws SQLException {}
+
+    protected void onUpdated(T entity) throws SQLException {}
+
+    protected void onDeleted(int id) throws SQLException {}
+
+    // Called by UnitOfWork when the transaction that created the entity rolled back; undoes onCreated
+    protected void onRolledBack(T entity) {}
+
+    @FunctionalInterface
+    protected interface RowCallback<E> {
+        void accept(E item, int generatedKey) throws SQLException;
+    }
+
+    @FunctionalInterface
+    protected interface RowMapper<E> {
+        E map(ResultSet rs) throws SQLException;
+    }
+
+    @FunctionalInterface
+    protected interface ParameterBinder<E> {
+        void bind(PreparedStatement stmt, E item) throws SQLException;
+    }
+
+    // One mapper is created per query; DAOs that hydrate joined rows override this to deduplicate
+    protected RowMapper<T> newRowMapper() {
+        return this::mapResultSetToEntity;
+    }
+
+    protected String getSelectSql() {
+        return "SELECT * FROM " + getTableName();
+    }
+
+    protected String getIdColumn() {
+        return "id";
+    }
+
+    // Column the pages are ordered and seeked on
+    protected String getKeyColumn() {
+        return getIdColumn();
+    }
+
+    // Label of the key column in the result set
+    protected String getKeyLabel() {
+        String column = getKeyColumn();
+        return column.substring(column.indexOf('.') + 1);
+    }
+
+    protected String getInsertSql() {
+        return "INSERT INTO " + getTableName() + " VALUES (" + getInsertPlaceholders() + ")";
+    }
+
+    protected String getUpdateSql() {
+        return "UPDATE " + getTableName() + " SET " + getUpdateFields() + " WHERE id = ?";
+    }
+
+    protected String getDeleteSql() {
+        return "DELETE FROM " + getTableName() + " WHERE id = ?";
+    }
+
     // Metode ajutătoare
     protected abstract String getInsertPlaceholders();
     protected abstract String getUpdateFields();
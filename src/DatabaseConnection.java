@@ -1,45 +1,65 @@
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/dental_clinic";
+    private static final String URL = "jdbc:mysql://localhost:3306/dental_clinic?useServerPrepStmts=true&rewriteBatchedStatements=true&useLocalSessionState=true";
     private static final String USER = "root";
     private static final String PASSWORD = "";
 
-    private static Connection connection = null;
+    // Pool settings
+    private static final int POOL_MIN_SIZE = 2;
+    private static final int POOL_MAX_SIZE = 10;
+    private static final long BORROW_TIMEOUT_MILLIS = 10_000;
+    private static final long VALIDATION_INTERVAL_MILLIS = 30_000;
+    private static final long IDLE_TIMEOUT_MILLIS = 300_000;
+    private static final long LEAK_THRESHOLD_MILLIS = 60_000;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    private static ConnectionPool pool = null;
 
     private DatabaseConnection() {} // Private constructor to prevent instantiation
 
-    public static Connection getConnection() {
-        if (connection == null) {
+    public static synchronized ConnectionPool getPool() {
+        if (pool == null) {
             try {
                 // Load the MySQL JDBC driver
                 Class.forName("com.mysql.cj.jdbc.Driver");
-                // Create the connection
-                connection = DriverManager.getConnection(URL, USER, PASSWORD);
-                System.out.println("Database connection established successfully.");
             } catch (ClassNotFoundException e) {
                 System.err.println("MySQL JDBC Driver not found.");
                 e.printStackTrace();
+            }
+            pool = new ConnectionPool(URL, USER, PASSWORD, POOL_MIN_SIZE, POOL_MAX_SIZE,
+                    BORROW_TIMEOUT_MILLIS, VALIDATION_INTERVAL_MILLIS, IDLE_TIMEOUT_MILLIS, LEAK_THRESHOLD_MILLIS,
+                    STATEMENT_CACHE_SIZE);
+            try {
+                pool.fillToMinimum();
+                System.out.println("Database connection established successfully.");
             } catch (SQLException e) {
+                // The pool keeps retrying on later checkouts, so the app can recover once MySQL is back
                 System.err.println("Connection failed.");
                 e.printStackTrace();
             }
         }
-        return connection;
+        return pool;
     }
 
-    public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                System.out.println("Database connection closed.");
-                connection = null;
-            } catch (SQLException e) {
-                System.err.println("Error while closing the connection.");
-                e.printStackTrace();
-            }
+    // Borrows a connection from the pool; closing it returns it to the pool
+    public static Connection getConnection() throws SQLException {
+        return getPool().borrow();
+    }
+
+    // A connection of its own for streaming reads; other queries on this thread keep using theirs
+    public static Connection getDedicatedConnection() throws SQLException {
+        return getPool().borrowDedicated();
+    }
+
+    public static synchronized void closeConnection() {
+        if (pool != null) {
+            System.out.println(pool);
+            System.out.println(StatementCache.getStats());
+            pool.shutdown();
+            System.out.println("Database connection closed.");
+            pool = null;
         }
     }
-}
\ No newline at end of file
+}
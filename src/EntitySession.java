@@ -0,0 +1,160 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Identity map for one CLI command or request: while a session is open on the current thread,
+// every DAO read of the same key returns the same instance and skips the database.
+public class EntitySession implements AutoCloseable {
+    private static final ThreadLocal<EntitySession> current = new ThreadLocal<>();
+
+    private final Map<Class<?>, Map<Object, Object>> entities = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxEntities;
+    private int depth;
+
+    public EntitySession() {
+        this(0);
+    }
+
+    private EntitySession(int maxEntities) {
+        this.maxEntities = maxEntities;
+    }
+
+    // A session that is never current on its own and forgets everything once it holds maxEntities,
+    // so a long stream only shares instances between nearby rows and its memory stays flat
+    public static EntitySession bounded(int maxEntities) {
+        return new EntitySession(maxEntities);
+    }
+
+    // Starts a session on this thread, or joins the one already open
+    public static EntitySession open() {
+        EntitySession session = current.get();
+        if (session == null) {
+            session = new EntitySession();
+            current.set(session);
+        }
+        session.depth++;
+        return session;
+    }
+
+    public static EntitySession current() {
+        return current.get();
+    }
+
+    // Makes this session current on the calling thread as well, so parallel loaders share one identity map.
+    // Closing the binding restores what that thread had before; the session itself stays open.
+    public Binding bind() {
+        Binding binding = new Binding(current.get());
+        current.set(this);
+        return binding;
+    }
+
+    // Returns the cached instance, or null when there is no session or the key was never loaded
+    public static <T> T lookup(Class<T> type, Object key) {
+        EntitySession session = current.get();
+        return session == null ? null : session.get(type, key);
+    }
+
+    // Returns the canonical instance for the key: the one already in the session if any, otherwise entity
+    public static <T> T register(Class<T> type, Object key, T entity) {
+        EntitySession session = current.get();
+        return session == null ? entity : session.put(type, key, entity);
+    }
+
+    // Drops a changed or deleted entity from this thread's session, so the next read goes to the database
+    public static void discard(Class<?> type, Object key) {
+        EntitySession session = current.get();
+        if (session != null) {
+            session.evict(type, key);
+        }
+    }
+
+    // For changes whose keys the caller does not know
+    public static void discardAll(Class<?> type) {
+        EntitySession session = current.get();
+        if (session != null) {
+            session.evictAll(type);
+        }
+    }
+
+    public <T> T get(Class<T> type, Object key) {
+        if (key == null) {
+            return null;
+        }
+        Object entity = entities.getOrDefault(type, Map.of()).get(key);
+        if (entity != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return type.cast(entity);
+    }
+
+    public <T> T put(Class<T> type, Object key, T entity) {
+        if (key == null || entity == null) {
+            return entity;
+        }
+        if (maxEntities > 0 && size.get() >= maxEntities) {
+            entities.clear();
+            size.set(0);
+        }
+        Object existing = entities.computeIfAbsent(type, k -> new ConcurrentHashMap<>()).putIfAbsent(key, entity);
+        if (existing == null) {
+            size.incrementAndGet();
+        }
+        return existing == null ? entity : type.cast(existing);
+    }
+
+    public void evict(Class<?> type, Object key) {
+        Map<Object, Object> byKey = entities.get(type);
+        if (byKey != null && key != null && byKey.remove(key) != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    public void evictAll(Class<?> type) {
+        Map<Object, Object> byKey = entities.remove(type);
+        if (byKey != null) {
+            size.addAndGet(-byKey.size());
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public void close() {
+        if (--depth == 0 && current.get() == this) {
+            current.remove();
+        }
+    }
+
+    public static class Binding implements AutoCloseable {
+        private final EntitySession previous;
+
+        private Binding(EntitySession previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Shared cache for turning clinic and service names into surrogate ids.
+// Warmed from the clinics and services tables at startup and kept current by the DAOs.
+public class IdResolver {
+    private static IdResolver instance;
+
+    private final Map<String, Integer> clinicIds = new ConcurrentHashMap<>();
+    private final Map<String, Integer> serviceIds = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private IdResolver() {}
+
+    public static synchronized IdResolver getInstance() {
+        if (instance == null) {
+            instance = new IdResolver();
+        }
+        return instance;
+    }
+
+    public void warm() throws SQLException {
+        try (Connection connection = DatabaseConnection.getConnection();
+             Statement stmt = connection.createStatement()) {
+            // Duplicate names resolve to the lowest id. The old per-call lookup had no ORDER BY and could
+            // return any of them; this rule is new and is shared with the single-name queries below
+            try (ResultSet rs = stmt.executeQuery("SELECT id, name FROM clinics ORDER BY id")) {
+                while (rs.next()) {
+                    clinicIds.putIfAbsent(nameKey(rs.getString("name")), rs.getInt("id"));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT id, name FROM services ORDER BY id")) {
+                while (rs.next()) {
+                    serviceIds.putIfAbsent(nameKey(rs.getString("name")), rs.getInt("id"));
+                }
+            }
+        }
+    }
+
+    // Returns -1 when no clinic has that name
+    public int getClinicId(String name) throws SQLException {
+        return resolve(clinicIds, nameKey(name), "SELECT id FROM clinics WHERE name = ? ORDER BY id LIMIT 1", name);
+    }
+
+    // Returns -1 when no service has that name
+    public int getServiceId(String name) throws SQLException {
+        return resolve(serviceIds, nameKey(name), "SELECT id FROM services WHERE name = ? ORDER BY id LIMIT 1", name);
+    }
+
+    // Saved entities carry their id; only unsaved ones fall back to the name lookup
+    public int getClinicId(Clinic clinic) throws SQLException {
+        if (clinic.getId() > 0) {
+            return clinic.getId();
+        }
+        int id = getClinicId(clinic.getName());
+        if (id > 0) {
+            clinic.setId(id);
+        }
+        return id;
+    }
+
+    public int getServiceId(Service service) throws SQLException {
+        if (service.getId() > 0) {
+            return service.getId();
+        }
+        int id = getServiceId(service.getName());
+        if (id > 0) {
+            service.setId(id);
+        }
+        return id;
+    }
+
+    public void putClinicId(String name, int id) {
+        clinicIds.putIfAbsent(nameKey(name), id);
+    }
+
+    public void putServiceId(String name, int id) {
+        serviceIds.putIfAbsent(nameKey(name), id);
+    }
+
+    public void evictClinic(int id) {
+        clinicIds.values().removeIf(value -> value == id);
+    }
+
+    public void evictService(int id) {
+        serviceIds.values().removeIf(value -> value == id);
+    }
+
+    // After a rename the old name may still point at the row, so the whole map is reloaded on demand
+    public void invalidateClinics() {
+        clinicIds.clear();
+    }
+
+    public void invalidateServices() {
+        serviceIds.clear();
+    }
+
+    public void invalidateAll() {
+        clinicIds.clear();
+        serviceIds.clear();
+    }
+
+    private int resolve(Map<String, Integer> cache, String key, String sql, Object... params) throws SQLException {
+        Integer id = cache.get(key);
+        if (id != null) {
+            hits.incrementAndGet();
+            return id;
+        }
+        misses.incrementAndGet();
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                id = rs.getInt("id");
+                cache.putIfAbsent(key, id);
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    // MySQL compares names case-insensitively, so the cache does too
+    private static String nameKey(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    public String getStats() {
+        return String.format("Id resolver: clinics=%d, services=%d, hits=%d, misses=%d, hitRate=%.1f%%",
+                clinicIds.size(), serviceIds.size(),
+                getHitCount(), getMissCount(), getHitRate() * 100);
+    }
+}
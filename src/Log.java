@@ -1,6 +1,7 @@
 import java.time.LocalDate;
 
 public class Log {
+    private int id;
     private String clinicName;           // or Cabinet name
     private String serviceName;          // type of treatment
     private Doctor doctor;               // doctor who performed the treatment
@@ -13,6 +14,15 @@ public class Log {
         this.date = date;
     }
 
+    // Database id; 0 until the row has been saved
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public String getClinicName() {
         return clinicName;
     }
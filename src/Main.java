@@ -1,4 +1,5 @@
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.*;
 import java.time.LocalDate;
 public class Main {
@@ -6,33 +7,46 @@ public class Main {
     private static ClinicService clinicService = new ClinicService(new ClinicNetwork("DentalCare Network"));
 
     public static void main(String[] args) {
-        DatabaseConnection.getConnection();
+        DatabaseConnection.getPool();
         while (true) {
             printMenu();
             int choice = getChoice();
-            try{
-            switch (choice) {
-                case 1 -> showAppointmentsByCriteria();
-                case 2 -> showAllEntities();
-                case 3 -> showPatientHistory();
-                case 4 -> addEntity();
-                case 5 -> addService();
-                case 6 -> createAppointment();
-                case 7 -> showBillForPatient();
-                case 8 -> showClinicReport();
-                case 9 -> {
-                    updatedeleteService();
+            // One identity map per command, so repeated reads of the same doctor or clinic are shared
+            EntitySession session = EntitySession.open();
+            try {
+                switch (choice) {
+                    case 1 -> showAppointmentsByCriteria();
+                    case 2 -> showAllEntities();
+                    case 3 -> showPatientHistory();
+                    case 4 -> addEntity();
+                    case 5 -> addService();
+                    case 6 -> createAppointment();
+                    case 7 -> showBillForPatient();
+                    case 8 -> showClinicReport();
+                    case 9 -> {
+                        updatedeleteService();
+                    }
+                    case 10 -> findEarliestSlot();
+                    case 11 -> showFreeSlots();
+                    case 12 -> cancelAppointment();
+                    case 13 -> scheduleRecalls();
+                    case 14 -> createSeries();
+                    case 15 -> addResource();
+                    case 0 -> {
+                        System.out.println("Exiting system.");
+                        System.out.println(IdResolver.getInstance().getStats());
+                        clinicService.shutdown();
+                        DatabaseConnection.closeConnection();
+                        return;
+                    }
+                    default -> System.out.println("Invalid choice.");
                 }
-                case 0 -> {
-                    System.out.println("Exiting system.");
-                    DatabaseConnection.closeConnection();
-                    return;
-                }
-                default -> System.out.println("Invalid choice.");
-            }}
+            }
             catch (Exception e) {
                 System.out.println("An error occurred: " + e.getMessage());
                 e.printStackTrace();
+            } finally {
+                session.close();
             }
         }
     }
@@ -51,9 +65,15 @@ public class Main {
                 7. Show bills for a patient
                 8. Show clinic report
                 9. Update / Delete Service
+                10. Find earliest slot in the network
+                11. Show free slots for a doctor (today and tomorrow)
+                12. Cancel an appointment
+                13. Schedule a recall campaign for a clinic's patients
+                14. Create a recurring appointment series
+                15. Add a chair / X-ray unit or a service requirement
                 0. Exit
                 ========================================
-                Choose an option (0-9):
+                Choose an option (0-15):
                 """);
     }
     // Function for getting CLI input
@@ -201,6 +221,126 @@ public class Main {
         LocalDate endDate = LocalDate.parse(endDateString);
         clinicService.generateClinicReport(clinicName,startDate,endDate);
     }
+    private static void findEarliestSlot() {
+        scanner.nextLine();
+        System.out.print("Service name: ");
+        String serviceName = scanner.nextLine();
+        System.out.print("Specialization (leave empty for any): ");
+        String specialization = scanner.nextLine();
+        System.out.print("From date and time (yyyy-MM-ddTHH:mm): ");
+        LocalDateTime from = LocalDateTime.parse(scanner.nextLine());
+
+        long start = System.nanoTime();
+        List<SlotOffer> offers = clinicService.findEarliestSlots(serviceName, specialization, from, 5);
+        long micros = (System.nanoTime() - start) / 1000;
+        if (offers.isEmpty()) {
+            System.out.println("No free slot found for this service.");
+            return;
+        }
+        System.out.println("Earliest slots (found in " + micros + " us):");
+        offers.forEach(offer -> System.out.println(" - " + offer));
+    }
+
+    private static void showFreeSlots() {
+        scanner.nextLine();
+        System.out.print("Clinic name: ");
+        String clinicName = scanner.nextLine();
+        System.out.print("Doctor name: ");
+        String doctorName = scanner.nextLine();
+        clinicService.showFreeSlots(doctorName, clinicName, LocalDate.now(), 2);
+    }
+
+    private static void cancelAppointment() {
+        scanner.nextLine();
+        System.out.print("Clinic name: ");
+        String clinicName = scanner.nextLine();
+        System.out.print("Doctor name: ");
+        String doctorName = scanner.nextLine();
+        System.out.print("Date and time (yyyy-MM-ddTHH:mm): ");
+        LocalDateTime dateTime = LocalDateTime.parse(scanner.nextLine());
+        clinicService.cancelAppointment(doctorName, clinicName, dateTime);
+    }
+
+    private static void scheduleRecalls() {
+        scanner.nextLine();
+        System.out.print("Clinic name: ");
+        String clinicName = scanner.nextLine();
+        Clinic clinic = clinicService.findClinicByName(clinicName);
+        if (clinic == null) {
+            System.out.println("Clinic not found.");
+            return;
+        }
+        System.out.print("Service name: ");
+        String serviceName = scanner.nextLine();
+        System.out.print("Window start (yyyy-MM-dd): ");
+        LocalDate from = LocalDate.parse(scanner.nextLine());
+        System.out.print("Window end (yyyy-MM-dd): ");
+        LocalDate to = LocalDate.parse(scanner.nextLine());
+
+        List<RecallRequest> requests = new ArrayList<>();
+        synchronized (clinic.getPatients()) {
+            for (Patient patient : clinic.getPatients()) {
+                requests.add(new RecallRequest(patient, serviceName, from.atStartOfDay(), to.atTime(23, 59)));
+            }
+        }
+        RecallReport report = clinicService.scheduleRecalls(requests);
+        System.out.println(report);
+        report.getUnplaced().forEach(request -> System.out.println(" - not placed: " + request));
+        report.getSaveFailures().forEach(failure -> System.out.println(" - not saved: " + failure));
+    }
+
+    private static void createSeries() {
+        scanner.nextLine();
+        System.out.print("Patient name: ");
+        String patientName = scanner.nextLine();
+        System.out.print("Clinic name: ");
+        String clinicName = scanner.nextLine();
+        System.out.print("Doctor name: ");
+        String doctorName = scanner.nextLine();
+        System.out.print("Service name: ");
+        String serviceName = scanner.nextLine();
+        System.out.print("First date (yyyy-MM-dd): ");
+        LocalDate firstDate = LocalDate.parse(scanner.nextLine());
+        System.out.print("Time (HH:mm): ");
+        LocalTime time = LocalTime.parse(scanner.nextLine());
+        System.out.print("Repeat every (e.g. 4w or 1m): ");
+        String every = scanner.nextLine().trim().toLowerCase();
+        System.out.print("Number of occurrences: ");
+        int occurrences = Integer.parseInt(scanner.nextLine().trim());
+
+        int step = Integer.parseInt(every.substring(0, every.length() - 1));
+        RecurrenceRule rule = every.endsWith("m")
+                ? RecurrenceRule.everyMonths(step, firstDate, time, occurrences)
+                : RecurrenceRule.everyWeeks(step, firstDate, time, occurrences);
+        System.out.println(rule);
+        clinicService.scheduleSeries(patientName, doctorName, clinicName, serviceName, rule)
+                .forEach(appointment -> System.out.println(" - " + appointment.getDateTime()));
+    }
+
+    private static void addResource() {
+        scanner.nextLine();
+        System.out.print("Clinic name: ");
+        String clinicName = scanner.nextLine();
+        System.out.println("1. Add a resource unit\n2. Make a service require a resource type");
+        int option = getChoice();
+        scanner.nextLine();
+        if (option == 1) {
+            System.out.print("Resource name: ");
+            String name = scanner.nextLine();
+            System.out.print("Type (e.g. CHAIR, XRAY): ");
+            String type = scanner.nextLine();
+            clinicService.addResourceToClinic(clinicName, name, type);
+        } else if (option == 2) {
+            System.out.print("Service name: ");
+            String serviceName = scanner.nextLine();
+            System.out.print("Required type: ");
+            String type = scanner.nextLine();
+            clinicService.requireResourceForService(clinicName, serviceName, type);
+        } else {
+            System.out.println("Invalid option.");
+        }
+    }
+
     private static void updatedeleteService() {
         scanner.nextLine();
         System.out.print("Clinic name: ");
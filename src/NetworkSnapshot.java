@@ -0,0 +1,319 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Appointments and bills as of the last save, with the patients they reference, in one binary file.
+// Strings are stored once in a dictionary and every row is a column of primitives, so a load maps the
+// file and bulk-copies arrays instead of materializing JDBC rows. Clinics, doctors and services are not
+// stored: they are small, read fresh at startup, and found again through the EntitySession by key.
+// Catch-up after a load only sees rows inserted since the save (by id) and deletions (by row count).
+// The tables carry no updated_at or version column, so an appointment or bill changed in place by
+// another process after the save keeps its saved values until the next full load; delete the file to force one.
+public class NetworkSnapshot {
+    private static final int MAGIC = 0x44434E53; // "DCNS"
+    private static final int VERSION = 1;
+
+    private final String[] strings;
+    // Patients: dictionary indexes, -1 for null
+    private final int[] patientIds, patientNames, patientEmails, patientPhones, patientInsurers;
+    // Appointments: patient row, doctor personalId (dictionary), clinic and service database ids
+    private final int[] appointmentIds, appointmentPatients, appointmentDoctors, appointmentClinics, appointmentServices;
+    private final long[] appointmentTimes;
+    // Bills: appointment row, amount, issue day, paid flag
+    private final int[] billIds, billAppointments, billIssueDays;
+    private final double[] billAmounts;
+    private final byte[] billPaid;
+    private final long writtenAtMillis;
+
+    private NetworkSnapshot(ByteBuffer in) {
+        writtenAtMillis = in.getLong();
+        strings = new String[in.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        int patients = in.getInt();
+        patientIds = ints(in, patients);
+        patientNames = ints(in, patients);
+        patientEmails = ints(in, patients);
+        patientPhones = ints(in, patients);
+        patientInsurers = ints(in, patients);
+        int appointments = in.getInt();
+        appointmentIds = ints(in, appointments);
+        appointmentPatients = ints(in, appointments);
+        appointmentDoctors = ints(in, appointments);
+        appointmentClinics = ints(in, appointments);
+        appointmentServices = ints(in, appointments);
+        appointmentTimes = new long[appointments];
+        in.asLongBuffer().get(appointmentTimes);
+        in.position(in.position() + appointments * Long.BYTES);
+        int bills = in.getInt();
+        billIds = ints(in, bills);
+        billAppointments = ints(in, bills);
+        billIssueDays = ints(in, bills);
+        billAmounts = new double[bills];
+        in.asDoubleBuffer().get(billAmounts);
+        in.position(in.position() + bills * Double.BYTES);
+        billPaid = new byte[bills];
+        in.get(billPaid);
+    }
+
+    private static int[] ints(ByteBuffer in, int count) {
+        int[] values = new int[count];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    // Null when there is no usable snapshot; the caller then loads everything from the database
+    public static NetworkSnapshot read(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                System.err.println("Ignoring snapshot " + file + ": unknown format");
+                return null;
+            }
+            return new NetworkSnapshot(in);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring snapshot " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Writes to a temporary file first, so a crash mid-write leaves the previous snapshot intact
+    public static void write(Path file, List<Appointment> appointments, Collection<Bill> bills) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        Map<Patient, Integer> patientRows = new IdentityHashMap<>();
+        Map<String, Integer> patientRowsById = new HashMap<>();
+        List<Patient> patients = new ArrayList<>();
+        Map<Integer, Integer> appointmentRows = new HashMap<>();
+        List<Appointment> saved = new ArrayList<>();
+
+        for (Appointment appointment : appointments) {
+            if (appointment.getId() <= 0 || appointmentRows.containsKey(appointment.getId())) {
+                continue;
+            }
+            appointmentRows.put(appointment.getId(), saved.size());
+            saved.add(appointment);
+            Patient patient = appointment.getPatient();
+            if (patient != null && !patientRows.containsKey(patient)) {
+                Integer row = patientRowsById.get(patient.getPersonalId());
+                if (row == null) {
+                    row = patients.size();
+                    patients.add(patient);
+                    patientRowsById.put(patient.getPersonalId(), row);
+                }
+                patientRows.put(patient, row);
+            }
+        }
+        List<Bill> savedBills = new ArrayList<>();
+        for (Bill bill : bills) {
+            if (bill.getId() > 0 && bill.getAppointment() != null && appointmentRows.containsKey(bill.getAppointment().getId())) {
+                savedBills.add(bill);
+            }
+        }
+
+        int[] patientColumns = new int[patients.size() * 5];
+        for (int i = 0; i < patients.size(); i++) {
+            Patient patient = patients.get(i);
+            patientColumns[i] = intern(patient.getPersonalId(), dictionary, strings);
+            patientColumns[patients.size() + i] = intern(patient.getName(), dictionary, strings);
+            patientColumns[2 * patients.size() + i] = intern(patient.getEmail(), dictionary, strings);
+            patientColumns[3 * patients.size() + i] = intern(patient.getPhone(), dictionary, strings);
+            patientColumns[4 * patients.size() + i] = intern(patient.getInsuranceProvider(), dictionary, strings);
+        }
+        int[] doctorColumn = new int[saved.size()];
+        for (int i = 0; i < saved.size(); i++) {
+            Doctor doctor = saved.get(i).getDoctor();
+            doctorColumn[i] = intern(doctor == null ? null : doctor.getPersonalId(), dictionary, strings);
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(strings.size());
+            for (String value : strings) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(patients.size());
+            for (int value : patientColumns) {
+                out.writeInt(value);
+            }
+
+            out.writeInt(saved.size());
+            for (Appointment appointment : saved) {
+                out.writeInt(appointment.getId());
+            }
+            for (Appointment appointment : saved) {
+                Integer row = appointment.getPatient() == null ? null : patientRows.get(appointment.getPatient());
+                out.writeInt(row == null ? -1 : row);
+            }
+            for (int value : doctorColumn) {
+                out.writeInt(value);
+            }
+            for (Appointment appointment : saved) {
+                out.writeInt(appointment.getClinic() == null ? 0 : appointment.getClinic().getId());
+            }
+            for (Appointment appointment : saved) {
+                out.writeInt(appointment.getService() == null ? 0 : appointment.getService().getId());
+            }
+            for (Appointment appointment : saved) {
+                out.writeLong(appointment.getDateTime().toEpochSecond(ZoneOffset.UTC));
+            }
+
+            out.writeInt(savedBills.size());
+            for (Bill bill : savedBills) {
+                out.writeInt(bill.getId());
+            }
+            for (Bill bill : savedBills) {
+                out.writeInt(appointmentRows.get(bill.getAppointment().getId()));
+            }
+            for (Bill bill : savedBills) {
+                out.writeInt((int) bill.getIssueDate().toEpochDay());
+            }
+            for (Bill bill : savedBills) {
+                out.writeDouble(bill.getTotalAmount());
+            }
+            for (Bill bill : savedBills) {
+                out.writeByte(bill.isPaid() ? 1 : 0);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int intern(String value, Map<String, Integer> dictionary, List<String> strings) {
+        if (value == null) {
+            return -1;
+        }
+        return dictionary.computeIfAbsent(value, v -> {
+            strings.add(v);
+            return strings.size() - 1;
+        });
+    }
+
+    private String string(int index) {
+        return index < 0 ? null : strings[index];
+    }
+
+    // Rebuilds appointments in file order, which is the order they were saved. Clinics, doctors and services
+    // come from the session, or from their DAO when the startup stages did not load them (a service unlinked
+    // from every clinic, say). A reference that cannot be resolved throws, so the caller reads from scratch.
+    // Patients are registered in the session so later rows share the same instances.
+    public List<Appointment> restoreAppointments(EntitySession session) throws SQLException {
+        Patient[] patients = new Patient[patientIds.length];
+        for (int i = 0; i < patients.length; i++) {
+            String personalId = string(patientIds[i]);
+            Patient patient = session.get(Patient.class, personalId);
+            if (patient == null) {
+                patient = session.put(Patient.class, personalId, new Patient(string(patientNames[i]), personalId,
+                        string(patientEmails[i]), string(patientPhones[i]), string(patientInsurers[i])));
+            }
+            patients[i] = patient;
+        }
+        List<Appointment> appointments = new ArrayList<>(appointmentIds.length);
+        for (int i = 0; i < appointmentIds.length; i++) {
+            String doctorId = string(appointmentDoctors[i]);
+            int clinicId = appointmentClinics[i];
+            int serviceId = appointmentServices[i];
+            Appointment appointment = new Appointment(
+                    appointmentPatients[i] < 0 ? null : patients[appointmentPatients[i]],
+                    resolve(session.get(Doctor.class, doctorId), () -> doctorId == null ? null : ServiceDoctor.getInstance().read(doctorId),
+                            "doctor " + doctorId, appointmentIds[i]),
+                    resolve(session.get(Clinic.class, clinicId), () -> ServiceClinic.getInstance().read(clinicId),
+                            "clinic " + clinicId, appointmentIds[i]),
+                    resolve(session.get(Service.class, serviceId), () -> ServiceMedical.getInstance().read(serviceId),
+                            "service " + serviceId, appointmentIds[i]),
+                    LocalDateTime.ofEpochSecond(appointmentTimes[i], 0, ZoneOffset.UTC));
+            if (appointment.getPatient() == null) {
+                throw new IllegalStateException("Snapshot appointment " + appointmentIds[i] + " has no patient");
+            }
+            appointment.setId(appointmentIds[i]);
+            appointments.add(appointment);
+        }
+        return appointments;
+    }
+
+    // Bills point at the appointments returned by restoreAppointments
+    private interface Lookup<T> {
+        T load() throws SQLException;
+    }
+
+    private static <T> T resolve(T cached, Lookup<T> lookup, String what, int appointmentId) throws SQLException {
+        T entity = cached != null ? cached : lookup.load();
+        if (entity == null) {
+            throw new IllegalStateException("Snapshot appointment " + appointmentId + " refers to missing " + what);
+        }
+        return entity;
+    }
+
+    public List<Bill> restoreBills(List<Appointment> appointments) {
+        List<Bill> bills = new ArrayList<>(billIds.length);
+        for (int i = 0; i < billIds.length; i++) {
+            Bill bill = new Bill(appointments.get(billAppointments[i]));
+            bill.setId(billIds[i]);
+            bill.setTotalAmount(billAmounts[i]);
+            bill.setIssueDate(LocalDate.ofEpochDay(billIssueDays[i]));
+            if (billPaid[i] != 0) {
+                bill.markAsPaid();
+            }
+            bills.add(bill);
+        }
+        return bills;
+    }
+
+    public int getMaxAppointmentId() {
+        int max = 0;
+        for (int id : appointmentIds) {
+            max = Math.max(max, id);
+        }
+        return max;
+    }
+
+    public int getMaxBillId() {
+        int max = 0;
+        for (int id : billIds) {
+            max = Math.max(max, id);
+        }
+        return max;
+    }
+
+    public int getAppointmentCount() {
+        return appointmentIds.length;
+    }
+
+    public int getBillCount() {
+        return billIds.length;
+    }
+
+    public long getWrittenAtMillis() {
+        return writtenAtMillis;
+    }
+}
@@ -0,0 +1,27 @@
+import java.util.List;
+
+// One page of a keyset (seek) query. Pass getNextKey() back to fetch the following page.
+public class Page<T, K> {
+    private final List<T> items;
+    private final K nextKey;
+    private final boolean hasMore;
+
+    public Page(List<T> items, K nextKey, boolean hasMore) {
+        this.items = items;
+        this.nextKey = nextKey;
+        this.hasMore = hasMore;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    // Key of the last row on this page
+    public K getNextKey() {
+        return nextKey;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -1,15 +1,30 @@
+import java.lang.ref.SoftReference;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Patient extends Person {
+    // Reads a patient's logs from the database; installed once by ClinicService
+    public interface HistoryLoader {
+        List<Log> load(Patient patient) throws SQLException;
+    }
+
+    private static volatile HistoryLoader historyLoader;
+
     private String insuranceProvider;
-    private List<Log> medicalHistory;
+    // With a loader the history is read on first access and only softly reachable, so idle patients
+    // cost no log memory; without one it is kept in memory like any other field
+    private List<Log> localHistory;
+    private SoftReference<List<Log>> loadedHistory = new SoftReference<>(null);
 
     public Patient(String name, String personalId, String email, String phone, String insuranceProvider)  {
         super(name, personalId, email, phone);
         this.insuranceProvider = insuranceProvider;
-        this.medicalHistory = new ArrayList<>();
+    }
 
+    public static void setHistoryLoader(HistoryLoader loader) {
+        historyLoader = loader;
     }
 
     public String getInsuranceProvider() {
@@ -20,16 +35,45 @@ public class Patient extends Person {
         this.insuranceProvider = insuranceProvider;
     }
 
-    public List<Log> getMedicalHistory() {
-        return medicalHistory;
+    public synchronized List<Log> getMedicalHistory() {
+        HistoryLoader loader = historyLoader;
+        if (loader == null) {
+            if (localHistory == null) {
+                localHistory = Collections.synchronizedList(new ArrayList<>());
+            }
+            return localHistory;
+        }
+        List<Log> history = loadedHistory.get();
+        if (history == null) {
+            history = Collections.synchronizedList(new ArrayList<>());
+            try {
+                history.addAll(loader.load(this));
+            } catch (SQLException e) {
+                System.err.println("Error loading medical history for " + name + ": " + e.getMessage());
+                return history;
+            }
+            loadedHistory = new SoftReference<>(history);
+        }
+        return history;
     }
 
-    public void addMedicalHistory(Log logEntry) {
-        medicalHistory.add(logEntry);
+    // Logs are saved before they are added here, so a history that is not loaded picks them up when it is
+    public synchronized void addMedicalHistory(Log logEntry) {
+        if (historyLoader == null) {
+            getMedicalHistory().add(logEntry);
+            return;
+        }
+        List<Log> history = loadedHistory.get();
+        if (history != null) {
+            history.add(logEntry);
+        }
     }
 
+    // Never triggers a load; an unloaded history prints as such
     @Override
-    public String toString() {
-        return super.toString() + ", Insurance: " + insuranceProvider + ", History: " + medicalHistory;
+    public synchronized String toString() {
+        List<Log> history = historyLoader == null ? localHistory : loadedHistory.get();
+        return super.toString() + ", Insurance: " + insuranceProvider +
+                ", History: " + (history == null ? (historyLoader == null ? "[]" : "not loaded") : history);
     }
 }
@@ -43,6 +43,19 @@ public abstract class Person {
         this.phone = phone;
     }
 
+    // Same kind of person with the same personalId; without an id only the object itself matches
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass() || personalId == null) return false;
+        return personalId.equals(((Person) o).personalId);
+    }
+
+    @Override
+    public int hashCode() {
+        return personalId == null ? System.identityHashCode(this) : personalId.hashCode();
+    }
+
     @Override
     public String toString() {
         return "Name: " + name + ", ID: " + personalId + ", Email: " + email + ", Phone: " + phone;
@@ -0,0 +1,62 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of a bulk recall run
+public class RecallReport {
+    private final int requested;
+    private final List<Appointment> placed;
+    private final List<RecallRequest> unplaced;
+    private final List<BatchResult.Failure<Appointment>> saveFailures;
+    private long planningMillis;
+    private long writeMillis;
+
+    public RecallReport(int requested) {
+        this.requested = requested;
+        this.placed = new ArrayList<>();
+        this.unplaced = new ArrayList<>();
+        this.saveFailures = new ArrayList<>();
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    // Appointments that were both scheduled and stored
+    public List<Appointment> getPlaced() {
+        return placed;
+    }
+
+    // Requests with no free slot in their window
+    public List<RecallRequest> getUnplaced() {
+        return unplaced;
+    }
+
+    public List<BatchResult.Failure<Appointment>> getSaveFailures() {
+        return saveFailures;
+    }
+
+    public long getPlanningMillis() {
+        return planningMillis;
+    }
+
+    public void setPlanningMillis(long planningMillis) {
+        this.planningMillis = planningMillis;
+    }
+
+    public long getWriteMillis() {
+        return writeMillis;
+    }
+
+    public void setWriteMillis(long writeMillis) {
+        this.writeMillis = writeMillis;
+    }
+
+    @Override
+    public String toString() {
+        long total = planningMillis + writeMillis;
+        return String.format("Recall: %d of %d placed, %d without a free slot, %d failed to save; " +
+                        "planning %d ms, writing %d ms (%.0f requests/s)",
+                placed.size(), requested, unplaced.size(), saveFailures.size(),
+                planningMillis, writeMillis, total == 0 ? 0 : requested * 1000.0 / total);
+    }
+}
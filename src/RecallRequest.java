@@ -0,0 +1,37 @@
+import java.time.LocalDateTime;
+
+// One patient to recall for a service somewhere within [earliest, latest]
+public class RecallRequest {
+    private final Patient patient;
+    private final String serviceName;
+    private final LocalDateTime earliest;
+    private final LocalDateTime latest;
+
+    public RecallRequest(Patient patient, String serviceName, LocalDateTime earliest, LocalDateTime latest) {
+        this.patient = patient;
+        this.serviceName = serviceName;
+        this.earliest = earliest;
+        this.latest = latest;
+    }
+
+    public Patient getPatient() {
+        return patient;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public LocalDateTime getEarliest() {
+        return earliest;
+    }
+
+    public LocalDateTime getLatest() {
+        return latest;
+    }
+
+    @Override
+    public String toString() {
+        return patient.getName() + " - " + serviceName + " between " + earliest + " and " + latest;
+    }
+}
@@ -0,0 +1,59 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Period;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+// Repeating appointment pattern, e.g. every 4 weeks on Tuesday at 10:00, 18 times.
+// Occurrences keep the first date's weekday, so monthly steps move to the next matching day.
+public class RecurrenceRule {
+    private final LocalDate firstDate;
+    private final LocalTime time;
+    private final Period interval;
+    private final int occurrences;
+
+    public RecurrenceRule(LocalDate firstDate, LocalTime time, Period interval, int occurrences) {
+        if (interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        if (occurrences < 1) {
+            throw new IllegalArgumentException("A series needs at least one occurrence");
+        }
+        this.firstDate = firstDate;
+        this.time = time;
+        this.interval = interval;
+        this.occurrences = occurrences;
+    }
+
+    public static RecurrenceRule everyWeeks(int weeks, LocalDate firstDate, LocalTime time, int occurrences) {
+        return new RecurrenceRule(firstDate, time, Period.ofWeeks(weeks), occurrences);
+    }
+
+    public static RecurrenceRule everyMonths(int months, LocalDate firstDate, LocalTime time, int occurrences) {
+        return new RecurrenceRule(firstDate, time, Period.ofMonths(months), occurrences);
+    }
+
+    public List<LocalDateTime> expand() {
+        DayOfWeek dayOfWeek = firstDate.getDayOfWeek();
+        List<LocalDateTime> dates = new ArrayList<>(occurrences);
+        for (int i = 0; i < occurrences; i++) {
+            // Stepping from the first date each time avoids drifting at month ends
+            LocalDate date = firstDate.plus(interval.multipliedBy(i)).with(TemporalAdjusters.nextOrSame(dayOfWeek));
+            dates.add(date.atTime(time));
+        }
+        return dates;
+    }
+
+    public int getOccurrences() {
+        return occurrences;
+    }
+
+    @Override
+    public String toString() {
+        return "Every " + interval + " on " + firstDate.getDayOfWeek() + " at " + time +
+                ", " + occurrences + " times from " + firstDate;
+    }
+}
@@ -0,0 +1,43 @@
+// Something besides the doctor that an appointment occupies, e.g. a treatment chair or an X-ray unit
+public class Resource {
+    private int id;
+    private String name;
+    private String type;
+    private Clinic clinic;
+
+    public Resource(String name, String type, Clinic clinic) {
+        this.name = name;
+        this.type = type;
+        this.clinic = clinic;
+    }
+
+    // Database id; 0 until the row has been saved
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Clinic getClinic() {
+        return clinic;
+    }
+
+    public void setClinic(Clinic clinic) {
+        this.clinic = clinic;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + type + ")";
+    }
+}
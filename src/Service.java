@@ -1,8 +1,14 @@
 import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 public class Service {
+    private int id;
     private String name;
     private double price;
     private long durationInMinutes;
+    private final Set<String> requiredResourceTypes = Collections.synchronizedSet(new LinkedHashSet<>());
 
     public Service(String name, double price, int durationInMinutes) {
         this.name = name;
@@ -10,6 +16,15 @@ public class Service {
         this.durationInMinutes = durationInMinutes;
     }
 
+    // Database id; 0 until the row has been saved
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public String getName() {
         return name;
     }
@@ -34,6 +49,28 @@ public class Service {
         this.durationInMinutes = durationInMinutes;
     }
 
+    // Resource types (e.g. CHAIR, XRAY) of which one unit must be free for the whole appointment
+    public Set<String> getRequiredResourceTypes() {
+        return requiredResourceTypes;
+    }
+
+    public void addRequiredResourceType(String type) {
+        requiredResourceTypes.add(type.toUpperCase());
+    }
+
+    // Saved services match by id; an unsaved one (id 0) only matches itself
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Service) || id == 0) return false;
+        return id == ((Service) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return id == 0 ? System.identityHashCode(this) : Integer.hashCode(id);
+    }
+
     @Override
     public String toString() {
         return name + " (Price: $" + price + ", Duration: " + durationInMinutes + " mins)";
@@ -1,18 +1,19 @@
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class ServiceAppointment extends DatabaseCRUD<Appointment> {
     private static ServiceAppointment instance;
     private final AuditService auditService;
 
     private ServiceAppointment() {
-        super(); // Call parent constructor to initialize connection
+        super();
         this.auditService = AuditService.getInstance();
     }
 
-    public static ServiceAppointment getInstance() {
+    public static synchronized ServiceAppointment getInstance() {
         if (instance == null) {
             instance = new ServiceAppointment();
         }
@@ -24,38 +25,69 @@ public class ServiceAppointment extends DatabaseCRUD<Appointment> {
         return "appointments";
     }
 
+    // One row carries the appointment together with everything it references
+    static final String JOINED_COLUMNS =
+            "a.id AS a_id, a.dateTime AS a_dateTime, " +
+            "p.name AS p_name, p.personalId AS p_personalId, p.email AS p_email, p.phone AS p_phone, " +
+            "p.insuranceProvider AS p_insuranceProvider, " +
+            "d.name AS d_name, d.personalId AS d_personalId, d.email AS d_email, d.phone AS d_phone, " +
+            "d.specialization AS d_specialization, d.yearsOfExperience AS d_yearsOfExperience, " +
+            "c.id AS c_id, c.name AS c_name, c.address AS c_address, " +
+            "dc.id AS dc_id, dc.name AS dc_name, dc.address AS dc_address, " +
+            "s.id AS s_id, s.name AS s_name, s.price AS s_price, s.durationInMinutes AS s_durationInMinutes";
+
+    // Joins from alias "a" to the related tables
+    static final String REFERENCE_JOINS =
+            " LEFT JOIN patients p ON p.personalId = a.patientId" +
+            " LEFT JOIN doctors d ON d.personalId = a.doctorId" +
+            " LEFT JOIN clinics c ON c.id = a.clinicId" +
+            " LEFT JOIN services s ON s.id = a.serviceId" +
+            " LEFT JOIN clinics dc ON dc.id = d.clinicId";
+
     @Override
-    protected Appointment mapResultSetToEntity(ResultSet rs) throws SQLException {
+    protected String getSelectSql() {
+        return "SELECT " + JOINED_COLUMNS + " FROM appointments a" + REFERENCE_JOINS;
+    }
 
-        String patientId = rs.getString("patientId");
-        String doctorId = rs.getString("doctorId");
-        int clinicId = rs.getInt("clinicId");
-        int serviceId = rs.getInt("serviceId");
-        LocalDateTime dateTime = rs.getTimestamp("dateTime").toLocalDateTime();
+    @Override
+    protected String getIdColumn() {
+        return "a.id";
+    }
 
-        // Fetch related entities
-        ServicePatient servicePatient = ServicePatient.getInstance();
-        ServiceDoctor serviceDoctor = ServiceDoctor.getInstance();
-        ServiceClinic serviceClinic = ServiceClinic.getInstance();
-        ServiceMedical serviceMedical = ServiceMedical.getInstance();
+    @Override
+    protected String getKeyLabel() {
+        return "a_id";
+    }
 
-        Patient patient = servicePatient.read(patientId);
-        Doctor doctor = serviceDoctor.read(doctorId);
-        Clinic clinic = serviceClinic.read(clinicId);
-        Service service = serviceMedical.read(serviceId);
+    @Override
+    protected Appointment mapResultSetToEntity(ResultSet rs) throws SQLException {
+        return new Hydrator().appointment(rs);
+    }
 
-        return new Appointment(patient, doctor, clinic, service, dateTime);
+    @Override
+    protected RowMapper<Appointment> newRowMapper() {
+        return new Hydrator()::appointment;
     }
+
     @Override
     public void create(Appointment appointment) throws SQLException {
-        String sql = "INSERT INTO appointments (patientId, doctorId, clinicId, serviceId, dateTime) VALUES (?, ?, ?, ?, ?)";
+        super.create(appointment);
+        auditService.logAction("Created appointment for patient: " + appointment.getPatient().getName());
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            setInsertParameters(stmt, appointment);
-            stmt.executeUpdate();
+    @Override
+    protected void onCreated(Appointment appointment, int generatedId) {
+        appointment.setId(generatedId);
+    }
 
-            auditService.logAction("Created appointment for patient: " + appointment.getPatient().getName());
-        }
+    @Override
+    protected void onRolledBack(Appointment appointment) {
+        appointment.setId(0);
+    }
+
+    @Override
+    protected String getInsertSql() {
+        return "INSERT INTO appointments (patientId, doctorId, clinicId, serviceId, dateTime) VALUES (" + getInsertPlaceholders() + ")";
     }
     @Override
     protected void setInsertParameters(PreparedStatement stmt, Appointment appointment) throws SQLException {
@@ -88,76 +120,163 @@ public class ServiceAppointment extends DatabaseCRUD<Appointment> {
 
     // Helper methods to get IDs for related entities
     private int getClinicId(Clinic clinic) throws SQLException {
-        // Implementation to get clinic ID from database
-        String sql = "SELECT id FROM clinics WHERE name = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, clinic.getName());
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("id");
-            }
-        }
-        return -1;
+        return IdResolver.getInstance().getClinicId(clinic);
     }
 
     private int getServiceId(Service service) throws SQLException {
-        // Implementation to get service ID from database
-        String sql = "SELECT id FROM services WHERE name = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, service.getName());
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("id");
-            }
-        }
-        return -1;
+        return IdResolver.getInstance().getServiceId(service);
     }
 
     // Find appointments by patient
     public List<Appointment> findByPatient(Patient patient) throws SQLException {
-        String sql = "SELECT * FROM appointments WHERE patientId = ?";
         System.out.println(patient.getPersonalId());
-        List<Appointment> appointments = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, patient.getPersonalId());
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                appointments.add(mapResultSetToEntity(rs));
-            }
-        }
+        List<Appointment> appointments = query(getSelectSql() + " WHERE a.patientId = ?", patient.getPersonalId());
         auditService.logAction("Retrieved appointments for patient: " + patient.getName());
         return appointments;
     }
 
     // Find appointments by doctor
     public List<Appointment> findByDoctor(Doctor doctor) throws SQLException {
-        String sql = "SELECT * FROM appointments WHERE doctorId = ?";
-        List<Appointment> appointments = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, doctor.getPersonalId());
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                appointments.add(mapResultSetToEntity(rs));
-            }
-        }
+        List<Appointment> appointments = query(getSelectSql() + " WHERE a.doctorId = ?", doctor.getPersonalId());
         auditService.logAction("Retrieved appointments for doctor: " + doctor.getName());
         return appointments;
     }
 
-    @Override
-    public List<Appointment> readAll() throws SQLException {
-        String sql = "SELECT * FROM appointments";
-        List<Appointment> appointments = new ArrayList<>();
+    // Paged variants: seek on (dateTime, id), so each page is an index range scan
+    // on (doctorId, dateTime) / (patientId, dateTime) instead of an OFFSET skip
+    public Page<Appointment, Cursor> findByDoctor(Doctor doctor, Cursor after, int limit) throws SQLException {
+        return findPage("a.doctorId", doctor.getPersonalId(), after, limit);
+    }
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                appointments.add(mapResultSetToEntity(rs));
-            }
+    public Page<Appointment, Cursor> findByPatient(Patient patient, Cursor after, int limit) throws SQLException {
+        return findPage("a.patientId", patient.getPersonalId(), after, limit);
+    }
+
+    private Page<Appointment, Cursor> findPage(String column, String personalId, Cursor after, int limit) throws SQLException {
+        String sql = getSelectSql() + " WHERE " + column + " = ?";
+        Object[] params;
+        if (after == null) {
+            params = new Object[]{personalId};
+        } else {
+            sql += " AND (a.dateTime > ? OR (a.dateTime = ? AND a.id > ?))";
+            Timestamp afterTime = Timestamp.valueOf(after.getDateTime());
+            params = new Object[]{personalId, afterTime, afterTime, after.getId()};
         }
+        sql += " ORDER BY a.dateTime, a.id LIMIT ?";
+        return queryPage(sql, limit, Cursor::fromRow, params);
+    }
+
+    // Stream a clinic's appointments in date order without loading the table
+    public Stream<Appointment> streamByClinic(String clinicName) throws SQLException {
+        return stream(getSelectSql() + " WHERE c.name = ? ORDER BY a.dateTime", clinicName);
+    }
+
+    // Same, limited to appointments between the two dates (inclusive)
+    public Stream<Appointment> streamByClinic(String clinicName, LocalDate startDate, LocalDate endDate) throws SQLException {
+        return stream(getSelectSql() + " WHERE c.name = ? AND a.dateTime >= ? AND a.dateTime < ? ORDER BY a.dateTime",
+                clinicName,
+                Timestamp.valueOf(startDate.atStartOfDay()),
+                Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()));
+    }
 
+    @Override
+    public List<Appointment> readAll() throws SQLException {
+        List<Appointment> appointments = super.readAll();
         auditService.logAction("Retrieved all appointments");
         return appointments;
     }
 
-}
\ No newline at end of file
+    // Position of the last appointment on a page
+    public static class Cursor {
+        private final LocalDateTime dateTime;
+        private final int id;
+
+        public Cursor(LocalDateTime dateTime, int id) {
+            this.dateTime = dateTime;
+            this.id = id;
+        }
+
+        private static Cursor fromRow(ResultSet rs) throws SQLException {
+            return new Cursor(rs.getTimestamp("a_dateTime").toLocalDateTime(), rs.getInt("a_id"));
+        }
+
+        public LocalDateTime getDateTime() {
+            return dateTime;
+        }
+
+        public int getId() {
+            return id;
+        }
+    }
+
+    // Maps joined rows into the object graph in one pass. Patients, doctors, clinics and services
+    // that occur on many rows are built once and shared, through the open EntitySession if there is one.
+    static class Hydrator {
+        private final EntitySession session;
+
+        Hydrator() {
+            EntitySession current = EntitySession.current();
+            this.session = current != null ? current : new EntitySession();
+        }
+
+        // Appointments themselves are not kept, so streaming a large table does not grow the session
+        Appointment appointment(ResultSet rs) throws SQLException {
+            int id = rs.getInt("a_id");
+            if (rs.wasNull()) {
+                return null;
+            }
+            LocalDateTime dateTime = rs.getTimestamp("a_dateTime").toLocalDateTime();
+            Appointment appointment = new Appointment(patient(rs), doctor(rs), clinic(rs, "c_"), service(rs), dateTime);
+            appointment.setId(id);
+            return appointment;
+        }
+
+        private Patient patient(ResultSet rs) throws SQLException {
+            String personalId = rs.getString("p_personalId");
+            if (personalId == null) {
+                return null;
+            }
+            Patient patient = session.get(Patient.class, personalId);
+            if (patient == null) {
+                patient = session.put(Patient.class, personalId, ServicePatient.mapPatient(rs, "p_"));
+            }
+            return patient;
+        }
+
+        private Doctor doctor(ResultSet rs) throws SQLException {
+            String personalId = rs.getString("d_personalId");
+            if (personalId == null) {
+                return null;
+            }
+            Doctor doctor = session.get(Doctor.class, personalId);
+            if (doctor == null) {
+                doctor = session.put(Doctor.class, personalId, ServiceDoctor.mapDoctor(rs, "d_", clinic(rs, "dc_")));
+            }
+            return doctor;
+        }
+
+        private Clinic clinic(ResultSet rs, String prefix) throws SQLException {
+            int id = rs.getInt(prefix + "id");
+            if (rs.wasNull()) {
+                return null;
+            }
+            Clinic clinic = session.get(Clinic.class, id);
+            if (clinic == null) {
+                clinic = session.put(Clinic.class, id, ServiceClinic.mapClinic(rs, prefix));
+            }
+            return clinic;
+        }
+
+        private Service service(ResultSet rs) throws SQLException {
+            int id = rs.getInt("s_id");
+            if (rs.wasNull()) {
+                return null;
+            }
+            Service service = session.get(Service.class, id);
+            if (service == null) {
+                service = session.put(Service.class, id, ServiceMedical.mapService(rs, "s_"));
+            }
+            return service;
+        }
+    }
+}
@@ -1,6 +1,4 @@
 import java.sql.*;
-import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 
 public class ServiceBill extends DatabaseCRUD<Bill> {
@@ -12,7 +10,7 @@ public class ServiceBill extends DatabaseCRUD<Bill> {
         this.auditService = AuditService.getInstance();
     }
 
-    public static ServiceBill getInstance() {
+    public static synchronized ServiceBill getInstance() {
         if (instance == null) {
             instance = new ServiceBill();
         }
@@ -24,15 +22,35 @@ public class ServiceBill extends DatabaseCRUD<Bill> {
         return "bills";
     }
 
+    @Override
+    protected String getSelectSql() {
+        // The appointment and its references come back on the same row
+        return "SELECT b.id, b.totalAmount, b.issueDate, b.paid, " + ServiceAppointment.JOINED_COLUMNS +
+                " FROM bills b LEFT JOIN appointments a ON a.id = b.appointmentId" +
+                ServiceAppointment.REFERENCE_JOINS;
+    }
+
+    @Override
+    protected String getIdColumn() {
+        return "b.id";
+    }
+
     @Override
     protected Bill mapResultSetToEntity(ResultSet rs) throws SQLException {
-        int appointmentId = rs.getInt("appointmentId");
+        return mapBill(rs, new ServiceAppointment.Hydrator());
+    }
 
-        // Get the appointment
-        ServiceAppointment appointmentService = ServiceAppointment.getInstance();
-        Appointment appointment = appointmentService.read(appointmentId);
+    @Override
+    protected RowMapper<Bill> newRowMapper() {
+        ServiceAppointment.Hydrator hydrator = new ServiceAppointment.Hydrator();
+        return rs -> mapBill(rs, hydrator);
+    }
+
+    private Bill mapBill(ResultSet rs, ServiceAppointment.Hydrator hydrator) throws SQLException {
+        Appointment appointment = hydrator.appointment(rs);
 
         Bill bill = new Bill(appointment);
+        bill.setId(rs.getInt("id"));
         bill.setTotalAmount(rs.getDouble("totalAmount"));
         bill.setIssueDate(rs.getDate("issueDate").toLocalDate());
         if (rs.getBoolean("paid")) {
@@ -42,6 +60,16 @@ public class ServiceBill extends DatabaseCRUD<Bill> {
         return bill;
     }
 
+    @Override
+    protected void onCreated(Bill bill, int generatedId) {
+        bill.setId(generatedId);
+    }
+
+    @Override
+    protected void onRolledBack(Bill bill) {
+        bill.setId(0);
+    }
+
     @Override
     protected void setInsertParameters(PreparedStatement stmt, Bill bill) throws SQLException {
         stmt.setNull(1, Types.INTEGER);
@@ -53,8 +81,14 @@ public class ServiceBill extends DatabaseCRUD<Bill> {
 
     @Override
     protected void setUpdateParameters(PreparedStatement stmt, Bill bill) throws SQLException {
-        setInsertParameters(stmt, bill);
-        stmt.setInt(6, getAppointmentId(bill.getAppointment())); // For WHERE clause using appointmentId
+        if (bill.getId() <= 0) {
+            throw new SQLException("Bill must be saved before it can be updated.");
+        }
+        stmt.setInt(1, getAppointmentId(bill.getAppointment()));
+        stmt.setDouble(2, bill.getTotalAmount());
+        stmt.setDate(3, Date.valueOf(bill.getIssueDate()));
+        stmt.setBoolean(4, bill.isPaid());
+        stmt.setInt(5, bill.getId()); // For WHERE clause
     }
 
     @Override
@@ -64,7 +98,7 @@ public class ServiceBill extends DatabaseCRUD<Bill> {
 
     @Override
     protected String getUpdateFields() {
-        return "id = ?, appointmentId = ?, totalAmount = ?, issueDate = ?, paid = ?";
+        return "appointmentId = ?, totalAmount = ?, issueDate = ?, paid = ?";
     }
 
     @Override
@@ -74,15 +108,7 @@ public class ServiceBill extends DatabaseCRUD<Bill> {
 
     // Find unpaid bills
     public List<Bill> findUnpaidBills() throws SQLException {
-        String sql = "SELECT * FROM bills WHERE paid = false";
-        List<Bill> bills = new ArrayList<>();
-
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                bills.add(mapResultSetToEntity(rs));
-            }
-        }
+        List<Bill> bills = query(getSelectSql() + " WHERE b.paid = false");
 
         auditService.logAction("Retrieved unpaid bills list");
         return bills;
@@ -90,50 +116,16 @@ public class ServiceBill extends DatabaseCRUD<Bill> {
 
     // Find bills by patient
     public List<Bill> findBillsByPatient(Patient patient) throws SQLException {
-        String sql = "SELECT b.* FROM bills b " +
-                "JOIN appointments a ON b.appointmentId = a.id " +
-                "WHERE a.patientId = ?";
-
-        List<Bill> bills = new ArrayList<>();
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, patient.getPersonalId());
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                bills.add(mapResultSetToEntity(rs));
-            }
-        }
+        List<Bill> bills = query(getSelectSql() + " WHERE a.patientId = ?", patient.getPersonalId());
 
         auditService.logAction("Retrieved bills for patient: " + patient.getName());
         return bills;
     }
 
-    private Integer getAppointmentId(Appointment appointment) throws SQLException {
-        String sql = "SELECT id FROM appointments WHERE patientId = ? AND doctorId = ? AND clinicId = ? AND dateTime = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, appointment.getPatient().getPersonalId());
-            stmt.setString(2, appointment.getDoctor().getPersonalId());
-            stmt.setInt(3, getClinicId(appointment.getClinic()));
-            stmt.setTimestamp(4, Timestamp.valueOf(appointment.getDateTime()));
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("id");
-            }
+    private int getAppointmentId(Appointment appointment) throws SQLException {
+        if (appointment.getId() <= 0) {
+            throw new SQLException("Appointment must be saved before it can be billed.");
         }
-        return null; // Return null if no appointment found
-    }
-    private Integer getClinicId(Clinic clinic) throws SQLException {
-        String sql = "SELECT id FROM clinics WHERE name = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, clinic.getName());
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("id");
-            }
-        }
-        return null; // Return null if no clinic found
+        return appointment.getId();
     }
-
-
 }
\ No newline at end of file
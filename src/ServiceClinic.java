@@ -11,7 +11,7 @@ public class ServiceClinic extends DatabaseCRUD<Clinic> {
         this.auditService = AuditService.getInstance();
     }
 
-    public static ServiceClinic getInstance() {
+    public static synchronized ServiceClinic getInstance() {
         if (instance == null) {
             instance = new ServiceClinic();
         }
@@ -25,10 +25,55 @@ public class ServiceClinic extends DatabaseCRUD<Clinic> {
 
     @Override
     protected Clinic mapResultSetToEntity(ResultSet rs) throws SQLException {
-        Clinic clinic = new Clinic(rs.getString("name"), rs.getString("address"));
+        int id = rs.getInt("id");
+        Clinic cached = EntitySession.lookup(Clinic.class, id);
+        if (cached != null) {
+            return cached;
+        }
+        return EntitySession.register(Clinic.class, id, mapClinic(rs, ""));
+    }
+
+    @Override
+    public Clinic read(int id) throws SQLException {
+        Clinic cached = EntitySession.lookup(Clinic.class, id);
+        return cached != null ? cached : super.read(id);
+    }
+
+    // Also used by joined queries, where the clinic columns carry a prefix
+    static Clinic mapClinic(ResultSet rs, String prefix) throws SQLException {
+        Clinic clinic = new Clinic(rs.getString(prefix + "name"), rs.getString(prefix + "address"));
+        clinic.setId(rs.getInt(prefix + "id"));
         return clinic;
     }
 
+    @Override
+    protected void onCreated(Clinic clinic, int generatedId) {
+        clinic.setId(generatedId);
+        if (generatedId > 0) {
+            IdResolver.getInstance().putClinicId(clinic.getName(), generatedId);
+        }
+    }
+
+    @Override
+    protected void onRolledBack(Clinic clinic) {
+        if (clinic.getId() > 0) {
+            IdResolver.getInstance().evictClinic(clinic.getId());
+        }
+        clinic.setId(0);
+    }
+
+    @Override
+    protected void onUpdated(Clinic clinic) {
+        IdResolver.getInstance().invalidateClinics();
+        EntitySession.discard(Clinic.class, clinic.getId());
+    }
+
+    @Override
+    protected void onDeleted(int id) {
+        IdResolver.getInstance().evictClinic(id);
+        EntitySession.discard(Clinic.class, id);
+    }
+
     @Override
     protected void setInsertParameters(PreparedStatement stmt, Clinic clinic) throws SQLException {
         stmt.setString(1, null);
@@ -61,7 +106,8 @@ public class ServiceClinic extends DatabaseCRUD<Clinic> {
     public List<Clinic> getClinicsByDoctor(int doctorId) throws SQLException {
         String sql = "SELECT c.* FROM clinics c JOIN doctors d ON c.id = d.clinicId WHERE d.id = ?";
         List<Clinic> clinics = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, doctorId);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -11,7 +11,7 @@ public class ServiceDoctor extends DatabaseCRUD<Doctor> {
         this.auditService = AuditService.getInstance();
     }
 
-    public static ServiceDoctor getInstance() {
+    public static synchronized ServiceDoctor getInstance() {
         if (instance == null) {
             instance = new ServiceDoctor();
         }
@@ -25,22 +25,43 @@ public class ServiceDoctor extends DatabaseCRUD<Doctor> {
 
     @Override
     protected Doctor mapResultSetToEntity(ResultSet rs) throws SQLException {
-        String name = rs.getString("name");
         String personalId = rs.getString("personalId");
-        String email = rs.getString("email");
-        String phone = rs.getString("phone");
+        Doctor cached = EntitySession.lookup(Doctor.class, personalId);
+        if (cached != null) {
+            return cached;
+        }
 
         // Get the clinic
         ServiceClinic clinicService = ServiceClinic.getInstance();
         Clinic clinic = clinicService.read(rs.getInt("clinicId"));
 
-        String specialization = rs.getString("specialization");
-        int yearsOfExperience = rs.getInt("yearsOfExperience");
+        return EntitySession.register(Doctor.class, personalId, mapDoctor(rs, "", clinic));
+    }
+
+    // Also used by joined queries, where the doctor columns carry a prefix and the clinic is already mapped
+    static Doctor mapDoctor(ResultSet rs, String prefix, Clinic clinic) throws SQLException {
+        String name = rs.getString(prefix + "name");
+        String personalId = rs.getString(prefix + "personalId");
+        String email = rs.getString(prefix + "email");
+        String phone = rs.getString(prefix + "phone");
+        String specialization = rs.getString(prefix + "specialization");
+        int yearsOfExperience = rs.getInt(prefix + "yearsOfExperience");
 
         Doctor doctor = new Doctor(name, personalId, email, phone, clinic, specialization, yearsOfExperience);
         return doctor;
     }
 
+    @Override
+    protected void onUpdated(Doctor doctor) {
+        EntitySession.discard(Doctor.class, doctor.getPersonalId());
+    }
+
+    // The session is keyed by personalId, which a delete by id does not carry
+    @Override
+    protected void onDeleted(int id) {
+        EntitySession.discardAll(Doctor.class);
+    }
+
     @Override
     protected void setInsertParameters(PreparedStatement stmt, Doctor doctor) throws SQLException {
         stmt.setString(1, doctor.getName());
@@ -66,6 +87,12 @@ public class ServiceDoctor extends DatabaseCRUD<Doctor> {
         stmt.setString(8, doctor.getPersonalId()); // For WHERE clause
     }
 
+    // Doctors and patients are keyed by personalId
+    @Override
+    protected String getKeyColumn() {
+        return "personalId";
+    }
+
     @Override
     protected String getInsertPlaceholders() {
         return "?, ?, ?, ?, ?, ?, ?";
@@ -83,15 +110,7 @@ public class ServiceDoctor extends DatabaseCRUD<Doctor> {
 
     // Helper method to get clinic ID
     private int getClinicId(Clinic clinic) throws SQLException {
-        String sql = "SELECT id FROM clinics WHERE name = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, clinic.getName());
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("id");
-            }
-        }
-        return -1;
+        return IdResolver.getInstance().getClinicId(clinic);
     }
 
 
@@ -100,7 +119,8 @@ public class ServiceDoctor extends DatabaseCRUD<Doctor> {
         String sql = "SELECT * FROM doctors WHERE clinicId = ?";
         List<Doctor> doctors = new ArrayList<>();
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, getClinicId(clinic));
             ResultSet rs = stmt.executeQuery();
 
@@ -114,8 +134,13 @@ public class ServiceDoctor extends DatabaseCRUD<Doctor> {
     }
 
     protected Doctor read(String id) throws SQLException {
+        Doctor cached = EntitySession.lookup(Doctor.class, id);
+        if (cached != null) {
+            return cached;
+        }
         String query = "SELECT * FROM " + getTableName() + " WHERE personalId = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             stmt.setString(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
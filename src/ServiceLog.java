@@ -12,7 +12,7 @@ public class ServiceLog extends DatabaseCRUD<Log> {
         this.auditService = AuditService.getInstance();
     }
 
-    public static ServiceLog getInstance() {
+    public static synchronized ServiceLog getInstance() {
         if (instance == null) {
             instance = new ServiceLog();
         }
@@ -36,9 +36,20 @@ public class ServiceLog extends DatabaseCRUD<Log> {
         LocalDate date = rs.getDate("date").toLocalDate();
 
         Log log = new Log(clinicName, serviceName, doctor, date);
+        log.setId(rs.getInt("id"));
         return log;
     }
 
+    @Override
+    protected void onCreated(Log log, int generatedId) {
+        log.setId(generatedId);
+    }
+
+    @Override
+    protected void onRolledBack(Log log) {
+        log.setId(0);
+    }
+
     @Override
     protected void setInsertParameters(PreparedStatement stmt, Log log) throws SQLException {
         stmt.setNull(1, Types.INTEGER);
@@ -72,7 +83,8 @@ public class ServiceLog extends DatabaseCRUD<Log> {
 
     protected void addPatientToLog(Log log, Patient patient) throws SQLException {
         String sql = "INSERT INTO patientLogs (logId, patientId) VALUES (?, ?)";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, getLogId(log));
             stmt.setString(2, patient.getPersonalId());
             stmt.executeUpdate();
@@ -85,19 +97,10 @@ public class ServiceLog extends DatabaseCRUD<Log> {
     }
 
     private int getLogId(Log log) throws SQLException {
-        // This method would find the ID of a log entry based on its properties
-        String sql = "SELECT id FROM medicalLogs WHERE clinicName = ? AND serviceName = ? AND doctorId = ? AND date = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, log.getClinicName());
-            stmt.setString(2, log.getServiceName());
-            stmt.setString(3, getDoctorId(log.getDoctor()));
-            stmt.setDate(4, Date.valueOf(log.getDate()));
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("id");
-            }
+        if (log.getId() <= 0) {
+            throw new SQLException("Log entry must be saved before patients can be linked to it.");
         }
-        return -1;
+        return log.getId();
     }
     // Find logs by patient
     public List<Log> findByPatient(Patient patient) throws SQLException {
@@ -107,7 +110,8 @@ public class ServiceLog extends DatabaseCRUD<Log> {
 
         List<Log> logs = new ArrayList<>();
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, patient.getPersonalId());
             ResultSet rs = stmt.executeQuery();
 
@@ -1,6 +1,8 @@
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ServiceMedical extends DatabaseCRUD<Service> {
     private static ServiceMedical instance;
@@ -11,7 +13,7 @@ public class ServiceMedical extends DatabaseCRUD<Service> {
         this.auditService = AuditService.getInstance();
     }
 
-    public static ServiceMedical getInstance() {
+    public static synchronized ServiceMedical getInstance() {
         if (instance == null) {
             instance = new ServiceMedical();
         }
@@ -25,11 +27,57 @@ public class ServiceMedical extends DatabaseCRUD<Service> {
 
     @Override
     protected Service mapResultSetToEntity(ResultSet rs) throws SQLException {
-        return new Service(
-                rs.getString("name"),
-                rs.getDouble("price"),
-                rs.getInt("durationInMinutes")
+        int id = rs.getInt("id");
+        Service cached = EntitySession.lookup(Service.class, id);
+        if (cached != null) {
+            return cached;
+        }
+        return EntitySession.register(Service.class, id, mapService(rs, ""));
+    }
+
+    @Override
+    public Service read(int id) throws SQLException {
+        Service cached = EntitySession.lookup(Service.class, id);
+        return cached != null ? cached : super.read(id);
+    }
+
+    // Also used by joined queries, where the service columns carry a prefix
+    static Service mapService(ResultSet rs, String prefix) throws SQLException {
+        Service service = new Service(
+                rs.getString(prefix + "name"),
+                rs.getDouble(prefix + "price"),
+                rs.getInt(prefix + "durationInMinutes")
         );
+        service.setId(rs.getInt(prefix + "id"));
+        return service;
+    }
+
+    @Override
+    protected void onCreated(Service service, int generatedId) {
+        service.setId(generatedId);
+        if (generatedId > 0) {
+            IdResolver.getInstance().putServiceId(service.getName(), generatedId);
+        }
+    }
+
+    @Override
+    protected void onRolledBack(Service service) {
+        if (service.getId() > 0) {
+            IdResolver.getInstance().evictService(service.getId());
+        }
+        service.setId(0);
+    }
+
+    @Override
+    protected void onUpdated(Service service) {
+        IdResolver.getInstance().invalidateServices();
+        EntitySession.discard(Service.class, service.getId());
+    }
+
+    @Override
+    protected void onDeleted(int id) {
+        IdResolver.getInstance().evictService(id);
+        EntitySession.discard(Service.class, id);
     }
 
     @Override
@@ -44,6 +92,11 @@ public class ServiceMedical extends DatabaseCRUD<Service> {
         setInsertParameters(stmt, service);
     }
 
+    @Override
+    protected String getInsertSql() {
+        return "INSERT INTO services (name, price, durationInMinutes) VALUES (" + getInsertPlaceholders() + ")";
+    }
+
     @Override
     protected String getInsertPlaceholders() {
         return "?, ?, ?";
@@ -62,32 +115,27 @@ public class ServiceMedical extends DatabaseCRUD<Service> {
     // Insert service and link to clinic
     public void createWithClinic(Service service, String clinicName) throws SQLException {
         // Insert service
-        String insertServiceSql = "INSERT INTO services (name, price, durationInMinutes) VALUES (?, ?, ?)";
+        String insertServiceSql = getInsertSql();
         int serviceId = -1;
-        try (PreparedStatement stmt = connection.prepareStatement(insertServiceSql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(insertServiceSql, Statement.RETURN_GENERATED_KEYS)) {
             setInsertParameters(stmt, service);
             stmt.executeUpdate();
             ResultSet rs = stmt.getGeneratedKeys();
             if (rs.next()) {
                 serviceId = rs.getInt(1);
+                onCreated(service, serviceId);
             }
         }
 
         // Get clinic ID
-        int clinicId = -1;
-        String getClinicIdSql = "SELECT id FROM clinics WHERE name = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(getClinicIdSql)) {
-            stmt.setString(1, clinicName);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                clinicId = rs.getInt("id");
-            }
-        }
+        int clinicId = IdResolver.getInstance().getClinicId(clinicName);
 
         // Insert into clinicservices
         if (serviceId != -1 && clinicId != -1) {
             String insertClinicServiceSql = "INSERT INTO clinicservices (clinicId, serviceId) VALUES (?, ?)";
-            try (PreparedStatement stmt = connection.prepareStatement(insertClinicServiceSql)) {
+            try (Connection connection = getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(insertClinicServiceSql)) {
                 stmt.setInt(1, clinicId);
                 stmt.setInt(2, serviceId);
                 stmt.executeUpdate();
@@ -102,7 +150,8 @@ public class ServiceMedical extends DatabaseCRUD<Service> {
                 "JOIN clinics c ON cs.clinicId = c.id " +
                 "WHERE c.name = ?";
         List<Service> services = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, clinicName);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -111,18 +160,36 @@ public class ServiceMedical extends DatabaseCRUD<Service> {
         }
         return services;
     }
+    // Every clinic's services in one query, keyed by clinic id
+    public Map<Integer, List<Service>> getServicesByClinicId() throws SQLException {
+        String sql = "SELECT cs.clinicId, s.* FROM services s " +
+                "JOIN clinicservices cs ON s.id = cs.serviceId";
+        Map<Integer, List<Service>> services = new HashMap<>();
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                services.computeIfAbsent(rs.getInt("clinicId"), k -> new ArrayList<>()).add(mapResultSetToEntity(rs));
+            }
+        }
+        return services;
+    }
+
     public void updateServicePriceForClinic(String serviceName, String clinicName, double newPrice) throws SQLException {
         String sql = "UPDATE services s " +
                 "JOIN clinicServices cs ON s.id = cs.serviceId " +
                 "JOIN clinics c ON cs.clinicId = c.id " +
                 "SET s.price = ? " +
                 "WHERE s.name = ? AND c.name = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setDouble(1, newPrice);
             stmt.setString(2, serviceName);
             stmt.setString(3, clinicName);
             stmt.executeUpdate();
         }
+        // Rows are matched by name here, so any cached service may be the one that changed
+        EntitySession.discardAll(Service.class);
     }
 
     // Delete a service for a specific clinic
@@ -132,11 +199,13 @@ public class ServiceMedical extends DatabaseCRUD<Service> {
                 "JOIN services s ON cs.serviceId = s.id " +
                 "JOIN clinics c ON cs.clinicId = c.id " +
                 "WHERE s.name = ? AND c.name = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, serviceName);
             stmt.setString(2, clinicName);
             stmt.executeUpdate();
         }
+        EntitySession.discardAll(Service.class);
     }
 
 }
\ No newline at end of file
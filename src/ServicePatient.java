@@ -4,11 +4,11 @@ public class ServicePatient extends DatabaseCRUD<Patient> {
     private final AuditService auditService;
 
     private ServicePatient() {
-        super(); // Initialize connection from parent class
+        super();
         this.auditService = AuditService.getInstance();
     }
 
-    public static ServicePatient getInstance() {
+    public static synchronized ServicePatient getInstance() {
         if (instance == null) {
             instance = new ServicePatient();
         }
@@ -22,15 +22,36 @@ public class ServicePatient extends DatabaseCRUD<Patient> {
 
     @Override
     protected Patient mapResultSetToEntity(ResultSet rs) throws SQLException {
+        String personalId = rs.getString("personalId");
+        Patient cached = EntitySession.lookup(Patient.class, personalId);
+        if (cached != null) {
+            return cached;
+        }
+        return EntitySession.register(Patient.class, personalId, mapPatient(rs, ""));
+    }
+
+    // Also used by joined queries, where the patient columns carry a prefix
+    static Patient mapPatient(ResultSet rs, String prefix) throws SQLException {
         return new Patient(
-                rs.getString("name"),
-                rs.getString("personalId"),
-                rs.getString("email"),
-                rs.getString("phone"),
-                rs.getString("insuranceProvider")
+                rs.getString(prefix + "name"),
+                rs.getString(prefix + "personalId"),
+                rs.getString(prefix + "email"),
+                rs.getString(prefix + "phone"),
+                rs.getString(prefix + "insuranceProvider")
         );
     }
 
+    @Override
+    protected void onUpdated(Patient patient) {
+        EntitySession.discard(Patient.class, patient.getPersonalId());
+    }
+
+    // The session is keyed by personalId, which a delete by id does not carry
+    @Override
+    protected void onDeleted(int id) {
+        EntitySession.discardAll(Patient.class);
+    }
+
     @Override
     protected void setInsertParameters(PreparedStatement stmt, Patient patient) throws SQLException {
         stmt.setString(1, patient.getName());
@@ -45,6 +66,12 @@ public class ServicePatient extends DatabaseCRUD<Patient> {
         setInsertParameters(stmt, patient);
     }
 
+    // Doctors and patients are keyed by personalId
+    @Override
+    protected String getKeyColumn() {
+        return "personalId";
+    }
+
     @Override
     protected String getInsertPlaceholders() {
         return "?, ?, ?, ?, ?";
@@ -60,9 +87,25 @@ public class ServicePatient extends DatabaseCRUD<Patient> {
         return 5;
     }
 
+    // Lowest personalId among patients with that name, or null
+    public Patient findByName(String name) throws SQLException {
+        String query = "SELECT * FROM " + getTableName() + " WHERE name = ? ORDER BY personalId LIMIT 1";
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
+            stmt.setString(1, name);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? mapResultSetToEntity(rs) : null;
+        }
+    }
+
     protected Patient read(String id) throws SQLException {
+        Patient cached = EntitySession.lookup(Patient.class, id);
+        if (cached != null) {
+            return cached;
+        }
         String query = "SELECT * FROM " + getTableName() + " WHERE personalId = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             stmt.setString(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
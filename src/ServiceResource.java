@@ -0,0 +1,110 @@
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Treatment resources per clinic (table resources) and the resource types each service needs
+// (table serviceresources: serviceId, resourceType)
+public class ServiceResource extends DatabaseCRUD<Resource> {
+    private static ServiceResource instance;
+    private final AuditService auditService;
+
+    private ServiceResource() {
+        super();
+        this.auditService = AuditService.getInstance();
+    }
+
+    public static synchronized ServiceResource getInstance() {
+        if (instance == null) {
+            instance = new ServiceResource();
+        }
+        return instance;
+    }
+
+    @Override
+    protected String getTableName() {
+        return "resources";
+    }
+
+    @Override
+    protected Resource mapResultSetToEntity(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        Resource cached = EntitySession.lookup(Resource.class, id);
+        if (cached != null) {
+            return cached;
+        }
+
+        Clinic clinic = ServiceClinic.getInstance().read(rs.getInt("clinicId"));
+        Resource resource = new Resource(rs.getString("name"), rs.getString("type"), clinic);
+        resource.setId(id);
+        return EntitySession.register(Resource.class, id, resource);
+    }
+
+    @Override
+    protected void onCreated(Resource resource, int generatedId) {
+        resource.setId(generatedId);
+    }
+
+    @Override
+    protected void onRolledBack(Resource resource) {
+        resource.setId(0);
+    }
+
+    @Override
+    protected void setInsertParameters(PreparedStatement stmt, Resource resource) throws SQLException {
+        stmt.setInt(1, IdResolver.getInstance().getClinicId(resource.getClinic()));
+        stmt.setString(2, resource.getName());
+        stmt.setString(3, resource.getType().toUpperCase());
+    }
+
+    @Override
+    protected void setUpdateParameters(PreparedStatement stmt, Resource resource) throws SQLException {
+        setInsertParameters(stmt, resource);
+        stmt.setInt(4, resource.getId()); // For WHERE clause
+    }
+
+    @Override
+    protected String getInsertSql() {
+        return "INSERT INTO resources (clinicId, name, type) VALUES (" + getInsertPlaceholders() + ")";
+    }
+
+    @Override
+    protected String getInsertPlaceholders() {
+        return "?, ?, ?";
+    }
+
+    @Override
+    protected String getUpdateFields() {
+        return "clinicId = ?, name = ?, type = ?";
+    }
+
+    @Override
+    protected int getUpdateParametersCount() {
+        return 4;
+    }
+
+    // serviceId -> required resource types, for every service at once
+    public Map<Integer, List<String>> readRequirements() throws SQLException {
+        Map<Integer, List<String>> requirements = new HashMap<>();
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT serviceId, resourceType FROM serviceresources")) {
+            while (rs.next()) {
+                requirements.computeIfAbsent(rs.getInt("serviceId"), k -> new ArrayList<>()).add(rs.getString("resourceType"));
+            }
+        }
+        return requirements;
+    }
+
+    public void addRequirement(Service service, String resourceType) throws SQLException {
+        String sql = "INSERT INTO serviceresources (serviceId, resourceType) VALUES (?, ?)";
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, IdResolver.getInstance().getServiceId(service));
+            stmt.setString(2, resourceType.toUpperCase());
+            stmt.executeUpdate();
+        }
+        auditService.logAction("Service " + service.getName() + " now requires resource type: " + resourceType);
+    }
+}
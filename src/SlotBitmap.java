@@ -0,0 +1,135 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+// Occupancy of one working day (08:00-20:00) as 144 five-minute slots packed into three longs.
+// A set bit means the slot is busy; searches scan whole words and never allocate.
+public class SlotBitmap {
+    public static final int SLOT_MINUTES = 5;
+    public static final LocalTime DAY_START = LocalTime.of(8, 0);
+    public static final LocalTime DAY_END = LocalTime.of(20, 0);
+    public static final int SLOTS_PER_DAY = (DAY_END.toSecondOfDay() - DAY_START.toSecondOfDay()) / 60 / SLOT_MINUTES;
+
+    private static final int WORDS = (SLOTS_PER_DAY + 63) / 64;
+
+    private final long[] words = new long[WORDS];
+
+    // Marks [from, to) busy, clipped to the working day
+    public void set(int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, SLOTS_PER_DAY);
+        for (int i = from; i < to; ) {
+            int word = i >>> 6;
+            int end = Math.min(to, (word + 1) << 6);
+            words[word] |= mask(i & 63, end - (word << 6));
+            i = end;
+        }
+    }
+
+    public void copyTo(long[] target) {
+        System.arraycopy(words, 0, target, 0, WORDS);
+    }
+
+    public void clear() {
+        for (int i = 0; i < WORDS; i++) {
+            words[i] = 0;
+        }
+    }
+
+    // First busy slot in [from, to), or -1
+    public int nextBusy(int from, int to) {
+        return nextBusy(words, from, to);
+    }
+
+    // First free slot at or after from, or SLOTS_PER_DAY when the rest of the day is busy
+    public int nextFree(int from) {
+        return nextFree(words, from);
+    }
+
+    // Start of the first run of 'length' free slots at or after 'from', or -1
+    public int findFree(int from, int length) {
+        return findFree(words, from, length);
+    }
+
+    // Latest start at or before 'from' of a run of 'length' free slots, or -1
+    public int findFreeBefore(int from, int length) {
+        int i = Math.min(from, SLOTS_PER_DAY - length);
+        while (i >= 0) {
+            int busy = nextBusy(i, i + length);
+            if (busy < 0) {
+                return i;
+            }
+            // Any start that still covers the busy slot is blocked as well
+            i = busy - length;
+        }
+        return -1;
+    }
+
+    // Scratch word array for combining several bitmaps
+    public static long[] newWords() {
+        return new long[WORDS];
+    }
+
+    static int findFree(long[] words, int from, int length) {
+        int i = Math.max(from, 0);
+        while (i + length <= SLOTS_PER_DAY) {
+            int busy = nextBusy(words, i, i + length);
+            if (busy < 0) {
+                return i;
+            }
+            i = nextFree(words, busy + 1);
+        }
+        return -1;
+    }
+
+    static int nextBusy(long[] words, int from, int to) {
+        for (int i = from; i < to; ) {
+            int word = i >>> 6;
+            long bits = words[word] & (-1L << (i & 63));
+            if (bits != 0) {
+                int found = (word << 6) + Long.numberOfTrailingZeros(bits);
+                return found < to ? found : -1;
+            }
+            i = (word + 1) << 6;
+        }
+        return -1;
+    }
+
+    static int nextFree(long[] words, int from) {
+        for (int i = from; i < SLOTS_PER_DAY; ) {
+            int word = i >>> 6;
+            long bits = ~words[word] & (-1L << (i & 63));
+            if (bits != 0) {
+                return Math.min((word << 6) + Long.numberOfTrailingZeros(bits), SLOTS_PER_DAY);
+            }
+            i = (word + 1) << 6;
+        }
+        return SLOTS_PER_DAY;
+    }
+
+    // Bits [from, to) of a single word, 0 <= from < to <= 64
+    private static long mask(int from, int to) {
+        long upper = to == 64 ? -1L : (1L << to) - 1;
+        return upper & (-1L << from);
+    }
+
+    // Slot containing the given time; negative before 08:00
+    public static int slotOf(LocalDateTime time) {
+        int minutes = (time.toLocalTime().toSecondOfDay() - DAY_START.toSecondOfDay()) / 60;
+        return Math.floorDiv(minutes, SLOT_MINUTES);
+    }
+
+    // First slot boundary at or after the given time
+    public static int slotCeil(LocalDateTime time) {
+        int seconds = time.toLocalTime().toSecondOfDay() - DAY_START.toSecondOfDay();
+        return -Math.floorDiv(-seconds, SLOT_MINUTES * 60);
+    }
+
+    public static int slotCount(Duration duration) {
+        return (int) ((duration.toMinutes() + SLOT_MINUTES - 1) / SLOT_MINUTES);
+    }
+
+    public static LocalTime timeOf(int slot) {
+        return DAY_START.plusMinutes((long) slot * SLOT_MINUTES);
+    }
+}
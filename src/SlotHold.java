@@ -0,0 +1,53 @@
+import java.time.LocalDateTime;
+import java.util.List;
+
+// A slot kept busy for one caller until it is booked, released or the hold expires
+public class SlotHold {
+    private final long id;
+    private final Doctor doctor;
+    private final List<Resource> resources;
+    private final TimeRange range;
+    private final LocalDateTime expiresAt;
+    private TimingWheel.Timeout expiry;
+
+    SlotHold(long id, Doctor doctor, List<Resource> resources, TimeRange range, LocalDateTime expiresAt) {
+        this.id = id;
+        this.doctor = doctor;
+        this.resources = List.copyOf(resources);
+        this.range = range;
+        this.expiresAt = expiresAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    public List<Resource> getResources() {
+        return resources;
+    }
+
+    public TimeRange getRange() {
+        return range;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    TimingWheel.Timeout getExpiry() {
+        return expiry;
+    }
+
+    void setExpiry(TimingWheel.Timeout expiry) {
+        this.expiry = expiry;
+    }
+
+    @Override
+    public String toString() {
+        return "Hold #" + id + " on " + range.getStart() + " for " + doctor.getName() + " until " + expiresAt.toLocalTime();
+    }
+}
@@ -0,0 +1,78 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Temporary reservations that block a slot in the calendar while a caller decides.
+// Each hold expires after the TTL unless it is released first.
+public class SlotHolds {
+    private static final Duration TICK = Duration.ofSeconds(1);
+    private static final int WHEEL_SIZE = 512;
+
+    private final AppointmentCalendar calendar;
+    private final TimingWheel timer;
+    private final Map<Long, SlotHold> active = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private volatile Duration ttl;
+
+    public SlotHolds(AppointmentCalendar calendar, Duration ttl) {
+        this.calendar = calendar;
+        this.ttl = ttl;
+        this.timer = new TimingWheel("slot-hold-expiry", TICK, WHEEL_SIZE);
+    }
+
+    // The caller must hold the booking locks and have checked that the doctor and resources are free
+    public SlotHold place(Doctor doctor, List<Resource> resources, LocalDateTime start, Duration duration) {
+        Duration holdFor = ttl;
+        SlotHold hold = new SlotHold(nextId.getAndIncrement(), doctor, resources, new TimeRange(start, start.plus(duration)),
+                LocalDateTime.now().plus(holdFor));
+        calendar.addHold(doctor, hold.getRange());
+        for (Resource resource : resources) {
+            calendar.addHold(resource, hold.getRange());
+        }
+        active.put(hold.getId(), hold);
+        hold.setExpiry(timer.schedule(() -> expire(hold), holdFor));
+        return hold;
+    }
+
+    // Frees the slot; false when the hold had already expired or been released
+    public boolean release(SlotHold hold) {
+        if (active.remove(hold.getId()) == null) {
+            return false;
+        }
+        hold.getExpiry().cancel();
+        unblock(hold);
+        return true;
+    }
+
+    private void expire(SlotHold hold) {
+        if (active.remove(hold.getId()) != null) {
+            unblock(hold);
+        }
+    }
+
+    private void unblock(SlotHold hold) {
+        calendar.removeHold(hold.getDoctor(), hold.getRange());
+        for (Resource resource : hold.getResources()) {
+            calendar.removeHold(resource, hold.getRange());
+        }
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    public void shutdown() {
+        timer.shutdown();
+    }
+}
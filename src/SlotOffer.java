@@ -0,0 +1,38 @@
+import java.time.LocalDateTime;
+
+// A free slot found by a search: who, where and when the service could be booked
+public class SlotOffer {
+    private final Clinic clinic;
+    private final Doctor doctor;
+    private final Service service;
+    private final LocalDateTime start;
+
+    public SlotOffer(Clinic clinic, Doctor doctor, Service service, LocalDateTime start) {
+        this.clinic = clinic;
+        this.doctor = doctor;
+        this.service = service;
+        this.start = start;
+    }
+
+    public Clinic getClinic() {
+        return clinic;
+    }
+
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    public Service getService() {
+        return service;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    @Override
+    public String toString() {
+        return start + " - " + service.getName() + " with " + doctor.getName() +
+                " (" + doctor.getSpecialization() + ") at " + clinic.getName();
+    }
+}
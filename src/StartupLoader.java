@@ -0,0 +1,91 @@
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs startup reads as a small dependency graph: a stage starts as soon as the stages it names have
+// finished, each on its own pooled connection, and all of them share the caller's EntitySession so
+// related rows resolve to the same instances whichever stage reads them first.
+public class StartupLoader implements AutoCloseable {
+    public interface Stage<T> {
+        T load() throws SQLException;
+    }
+
+    private final EntitySession session;
+    private final ExecutorService executor;
+    private final List<String> timings = new ArrayList<>();
+    private final long startNanos = System.nanoTime();
+
+    public StartupLoader(EntitySession session, int threads) {
+        this.session = session;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "startup-loader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Runs the stage in the background once every future in 'after' has completed successfully
+    public <T> CompletableFuture<T> stage(String name, Stage<T> stage, CompletableFuture<?>... after) {
+        return CompletableFuture.allOf(after).thenApplyAsync(ignored -> {
+            EntitySession.Binding binding = session.bind();
+            try {
+                return timed(name, stage);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            } finally {
+                binding.close();
+            }
+        }, executor);
+    }
+
+    // Runs the stage on the calling thread, recording its time with the others
+    public <T> T run(String name, Stage<T> stage) throws SQLException {
+        return timed(name, stage);
+    }
+
+    // Waits for a stage and rethrows its SQLException as-is
+    public <T> T join(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private <T> T timed(String name, Stage<T> stage) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return stage.load();
+        } finally {
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            synchronized (timings) {
+                timings.add(name + " " + millis + " ms");
+            }
+        }
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    // Stages in the order they finished, then the wall-clock total
+    public String getReport() {
+        synchronized (timings) {
+            return "Startup loaded in " + getElapsedMillis() + " ms (" + String.join(", ", timings) + ")";
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
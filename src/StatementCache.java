@@ -0,0 +1,172 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// LRU cache of prepared statements for one physical connection, keyed by SQL text.
+// A pooled connection is only used by one thread at a time, so the cache itself needs no locking.
+public class StatementCache {
+    // Counters are shared by every connection so the DAOs can report one hit rate
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+
+    private final int capacity;
+    private final Map<String, CachedStatement> statements;
+
+    public StatementCache(int capacity) {
+        this.capacity = capacity;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() > StatementCache.this.capacity) {
+                    evictions.incrementAndGet();
+                    eldest.getValue().evict();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public PreparedStatement prepare(Connection physical, String sql, int autoGeneratedKeys) throws SQLException {
+        if (capacity <= 0) {
+            misses.incrementAndGet();
+            return physical.prepareStatement(sql, autoGeneratedKeys);
+        }
+
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "[keys] " + sql : sql;
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse && !cached.statement.isClosed()) {
+            hits.incrementAndGet();
+            cached.inUse = true;
+            return cached.proxy;
+        }
+
+        misses.incrementAndGet();
+        PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+        if (cached != null && cached.inUse) {
+            // Same SQL is already open further up the call stack; hand out a plain statement
+            return statement;
+        }
+        cached = new CachedStatement(statement);
+        cached.inUse = true;
+        statements.put(key, cached);
+        return cached.proxy;
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+    public static long getHitCount() {
+        return hits.get();
+    }
+
+    public static long getMissCount() {
+        return misses.get();
+    }
+
+    public static long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public static double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    public static String getStats() {
+        return String.format("Statement cache: hits=%d, misses=%d, evictions=%d, hitRate=%.1f%%",
+                getHitCount(), getMissCount(), getEvictionCount(), getHitRate() * 100);
+    }
+
+    private static class CachedStatement implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    this);
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // The connection is gone; the statement went with it
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (inUse) {
+                        inUse = false;
+                        if (evicted) {
+                            closeQuietly();
+                        } else {
+                            reset();
+                        }
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return !inUse || statement.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Cached" + statement;
+                }
+                default -> {
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+
+        // Returning to the cache: drop the last result and bindings, keep the server-side prepare
+        private void reset() {
+            try {
+                ResultSet rs = statement.getResultSet();
+                if (rs != null) {
+                    rs.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException e) {
+                evicted = true;
+                closeQuietly();
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+import java.util.concurrent.locks.ReentrantLock;
+
+// Fixed table of locks picked by key hash. Unrelated keys rarely share a stripe,
+// and the table does not grow with the number of keys.
+public class StripedLock {
+    private final ReentrantLock[] stripes;
+
+    public StripedLock(int stripes) {
+        int size = Integer.highestOneBit(Math.max(stripes - 1, 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public ReentrantLock get(Object key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+}
@@ -0,0 +1,30 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Half-open interval [start, end)
+public class TimeRange {
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    public TimeRange(LocalDateTime start, LocalDateTime end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public Duration getDuration() {
+        return Duration.between(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return start.toLocalTime() + " - " + end.toLocalTime() + " (" + getDuration().toMinutes() + " mins)";
+    }
+}
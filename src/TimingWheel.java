@@ -0,0 +1,139 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hashed timing wheel: timeouts are hashed into a fixed ring of buckets by expiry tick, and one
+// daemon thread advances the ring, so scheduling and cancelling are O(1) however many are pending.
+// Expiry is accurate to one tick.
+public class TimingWheel {
+    private final long tickNanos;
+    private final List<List<Timeout>> buckets;
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final long startNanos;
+    private final Thread worker;
+    private volatile boolean running = true;
+    // Only touched by the worker thread
+    private long tick;
+
+    public TimingWheel(String name, Duration tickDuration, int wheelSize) {
+        this.tickNanos = tickDuration.toNanos();
+        int size = Integer.highestOneBit(Math.max(wheelSize - 1, 1)) << 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public Timeout schedule(Runnable task, Duration delay) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + delay.toNanos());
+        pending.incrementAndGet();
+        incoming.add(timeout);
+        return timeout;
+    }
+
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    public void shutdown() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleepNanos = deadline - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+            }
+            transferIncoming();
+            expire(buckets.get((int) (tick & (buckets.size() - 1))));
+            tick++;
+        }
+    }
+
+    private void transferIncoming() {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            long expiryTick = Math.max((timeout.deadlineNanos - startNanos) / tickNanos, tick);
+            timeout.remainingRounds = (expiryTick - tick) / buckets.size();
+            buckets.get((int) (expiryTick & (buckets.size() - 1))).add(timeout);
+        }
+    }
+
+    private void expire(List<Timeout> bucket) {
+        Iterator<Timeout> it = bucket.iterator();
+        while (it.hasNext()) {
+            Timeout timeout = it.next();
+            if (timeout.cancelled) {
+                it.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                it.remove();
+                if (timeout.fire()) {
+                    try {
+                        timeout.task.run();
+                    } catch (RuntimeException e) {
+                        System.err.println("Timer task failed: " + e.getMessage());
+                    }
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    public class Timeout {
+        private final Runnable task;
+        private final long deadlineNanos;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+        private boolean done;
+
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        // False when the task already ran or was cancelled before
+        public boolean cancel() {
+            synchronized (this) {
+                if (done) {
+                    return false;
+                }
+                done = true;
+                cancelled = true;
+            }
+            pending.decrementAndGet();
+            return true;
+        }
+
+        private boolean fire() {
+            synchronized (this) {
+                if (done) {
+                    return false;
+                }
+                done = true;
+            }
+            pending.decrementAndGet();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Collects related writes and sends them in one transaction with a single commit.
+// DAOs borrow the thread's pooled connection, so every registered write joins the transaction.
+// Consecutive inserts through the same DAO are sent as one JDBC batch.
+public class UnitOfWork {
+    private final List<Work> work;
+    private final List<Runnable> afterCommit;
+    private long elapsedMillis;
+
+    public UnitOfWork() {
+        this.work = new ArrayList<>();
+        this.afterCommit = new ArrayList<>();
+    }
+
+    public <T> UnitOfWork registerNew(DatabaseCRUD<T> dao, T entity) {
+        if (!work.isEmpty() && work.get(work.size() - 1) instanceof PendingInserts<?> last && last.dao == dao) {
+            @SuppressWarnings("unchecked")
+            PendingInserts<T> inserts = (PendingInserts<T>) last;
+            inserts.entities.add(entity);
+        } else {
+            PendingInserts<T> inserts = new PendingInserts<>(dao);
+            inserts.entities.add(entity);
+            work.add(inserts);
+        }
+        return this;
+    }
+
+    // Any other write, e.g. a link row that needs ids generated by earlier steps
+    public UnitOfWork register(Work step) {
+        work.add(step);
+        return this;
+    }
+
+    // In-memory bookkeeping that must only happen once the rows are committed
+    public UnitOfWork afterCommit(Runnable action) {
+        afterCommit.add(action);
+        return this;
+    }
+
+    public void commit() throws SQLException {
+        long start = System.currentTimeMillis();
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                for (Work step : work) {
+                    step.execute();
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                // Ids handed out before the failure point at rows that no longer exist
+                for (Work step : work) {
+                    if (step instanceof PendingInserts<?> inserts) {
+                        inserts.rolledBack();
+                    }
+                }
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        elapsedMillis = System.currentTimeMillis() - start;
+        for (Runnable action : afterCommit) {
+            action.run();
+        }
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @FunctionalInterface
+    public interface Work {
+        void execute() throws SQLException;
+    }
+
+    private static class PendingInserts<T> implements Work {
+        private final DatabaseCRUD<T> dao;
+        private final List<T> entities = new ArrayList<>();
+
+        private PendingInserts(DatabaseCRUD<T> dao) {
+            this.dao = dao;
+        }
+
+        @Override
+        public void execute() throws SQLException {
+            if (entities.size() == 1) {
+                dao.create(entities.get(0));
+            } else {
+                dao.createAll(entities);
+            }
+        }
+
+        private void rolledBack() {
+            entities.forEach(dao::onRolledBack);
+        }
+    }
+}